@@ -0,0 +1,69 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.Disposition;
+import com.github.HonoluluHenk.httpcontentdisposition.HttpContentDisposition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listings/archive manifests: one header value per file, for a whole batch of files.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BatchRenderingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int batchSize;
+
+    private List<String> filenames;
+    private String[] filenameArray;
+
+    @Setup
+    public void setUp(CorpusState corpus) {
+        String[] corpusFilenames = corpus.filenames();
+        filenames = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            filenames.add(i + "-" + corpusFilenames[i % corpusFilenames.length]);
+        }
+        filenameArray = filenames.toArray(new String[0]);
+    }
+
+    /**
+     * Baseline: the usual builder per file.
+     */
+    @Benchmark
+    public String[] builderPerFile() {
+        String[] result = new String[filenames.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = HttpContentDisposition.builder()
+                    .disposition(Disposition.ATTACHMENT)
+                    .filename(filenames.get(i))
+                    .locale(Locale.GERMANY)
+                    .build()
+                    .headerValue();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public String[] renderAll() {
+        return HttpContentDisposition.renderAll(Disposition.ATTACHMENT, filenames, Locale.GERMANY);
+    }
+
+    /**
+     * Uses the common ForkJoinPool: scales with the number of cores available to the fork.
+     */
+    @Benchmark
+    public String[] renderAllParallel() {
+        return HttpContentDisposition.renderAllParallel(Disposition.ATTACHMENT, filenameArray, Locale.GERMANY);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ * <p>
+ * Accepts all regular JMH command line options (see: {@code java -jar benchmarks.jar -h})
+ * but always adds the {@link GCProfiler} so allocation rates (gc.alloc.rate.norm = bytes per operation)
+ * get reported next to the throughput.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+        // main class
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
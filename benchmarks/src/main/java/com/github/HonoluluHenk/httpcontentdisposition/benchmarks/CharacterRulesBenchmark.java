@@ -0,0 +1,82 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2231CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC5987CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187CharacterRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Table backed character rules against the {@link LegacyCharacterRules} they replaced.
+ * <p>
+ * Every operation classifies all code points of one filename.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CharacterRulesBenchmark {
+    private final RFC2616CharacterRules rfc2616 = RFC2616CharacterRules.getInstance();
+    private final RFC2231CharacterRules rfc2231 = RFC2231CharacterRules.getInstance();
+    private final RFC5987CharacterRules rfc5987 = RFC5987CharacterRules.getInstance();
+    private final RFC8187CharacterRules rfc8187 = RFC8187CharacterRules.getInstance();
+
+    @Benchmark
+    public int rfc2616IsTokenChar(CorpusState corpus) {
+        return count(corpus.nextFilename(), rfc2616::isTokenChar);
+    }
+
+    @Benchmark
+    public int rfc2616IsTokenCharLegacy(CorpusState corpus) {
+        return count(corpus.nextFilename(), LegacyCharacterRules::rfc2616IsTokenChar);
+    }
+
+    @Benchmark
+    public int rfc2231IsAttributeChar(CorpusState corpus) {
+        return count(corpus.nextFilename(), rfc2231::isAttributeChar);
+    }
+
+    @Benchmark
+    public int rfc2231IsAttributeCharLegacy(CorpusState corpus) {
+        return count(corpus.nextFilename(), LegacyCharacterRules::rfc2231IsAttributeChar);
+    }
+
+    @Benchmark
+    public int rfc5987IsAttrChar(CorpusState corpus) {
+        return count(corpus.nextFilename(), rfc5987::isAttrChar);
+    }
+
+    @Benchmark
+    public int rfc5987IsAttrCharLegacy(CorpusState corpus) {
+        return count(corpus.nextFilename(), LegacyCharacterRules::rfc5987IsAttrChar);
+    }
+
+    @Benchmark
+    public int rfc8187IsAttrChar(CorpusState corpus) {
+        return count(corpus.nextFilename(), rfc8187::isAttrChar);
+    }
+
+    @Benchmark
+    public int rfc8187IsAttrCharLegacy(CorpusState corpus) {
+        return count(corpus.nextFilename(), LegacyCharacterRules::rfc8187IsAttrChar);
+    }
+
+    private static int count(String filename, IntPredicate predicate) {
+        int result = 0;
+        int length = filename.length();
+        for (int offset = 0; offset < length; ) {
+            int codePoint = filename.codePointAt(offset);
+            if (predicate.test(codePoint)) {
+                result++;
+            }
+            offset += Character.charCount(codePoint);
+        }
+
+        return result;
+    }
+}
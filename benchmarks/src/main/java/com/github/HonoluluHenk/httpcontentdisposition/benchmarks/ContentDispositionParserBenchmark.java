@@ -0,0 +1,66 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.ContentDispositionParser;
+import com.github.HonoluluHenk.httpcontentdisposition.HttpContentDisposition;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing generated headers: from a String and from the raw ISO-8859-1 header bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ContentDispositionParserBenchmark {
+
+    private final ContentDispositionParser parser = new ContentDispositionParser();
+    private String[] headerValues;
+    private byte[][] headerBytes;
+
+    @Setup
+    public void setUp(CorpusState corpus) {
+        String[] filenames = corpus.filenames();
+        headerValues = new String[filenames.length];
+        headerBytes = new byte[filenames.length][];
+        for (int i = 0; i < filenames.length; i++) {
+            headerValues[i] = HttpContentDisposition.builder()
+                    .filename(filenames[i])
+                    .locale(Locale.GERMANY)
+                    .build()
+                    .headerValue();
+            headerBytes[i] = headerValues[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * The common check: only the disposition-type gets scanned.
+     */
+    @Benchmark
+    public boolean isAttachment(CorpusState corpus) {
+        return parser.parse(headerValues[corpus.nextIndex()]).isAttachment();
+    }
+
+    /**
+     * Scan all parameters, no value gets decoded.
+     */
+    @Benchmark
+    public int parse(CorpusState corpus) {
+        return parser.parse(headerValues[corpus.nextIndex()]).getParameterCount();
+    }
+
+    @Benchmark
+    public String parseFilename(CorpusState corpus) {
+        return parser.parse(headerValues[corpus.nextIndex()]).getFilename();
+    }
+
+    @Benchmark
+    public String parseFilenameFromBytes(CorpusState corpus) {
+        return parser.parse(headerBytes[corpus.nextIndex()]).getFilename();
+    }
+}
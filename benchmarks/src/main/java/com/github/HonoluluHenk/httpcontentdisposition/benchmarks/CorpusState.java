@@ -0,0 +1,39 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cycles through the filenames of one {@link FilenameCorpus} so the JIT cannot specialize on a single input.
+ */
+@State(Scope.Thread)
+public class CorpusState {
+    @Param
+    public FilenameCorpus corpus;
+
+    private String[] filenames;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        filenames = corpus.filenames();
+        index = 0;
+    }
+
+    public String[] filenames() {
+        return filenames;
+    }
+
+    public int nextIndex() {
+        int result = index;
+        index = (result + 1) % filenames.length;
+
+        return result;
+    }
+
+    public String nextFilename() {
+        return filenames[nextIndex()];
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.DefaultISO88591Encoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DefaultISO88591EncoderBenchmark {
+    private final DefaultISO88591Encoder encoder = new DefaultISO88591Encoder();
+
+    @Benchmark
+    public String encode(CorpusState corpus) {
+        return encoder.encode(corpus.nextFilename());
+    }
+
+    /**
+     * Baseline: the charset round trip used up to release 1.0.4.
+     */
+    @Benchmark
+    public String encodeJdkRoundTrip(CorpusState corpus) {
+        return new String(corpus.nextFilename().trim().getBytes(ISO_8859_1), ISO_8859_1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Realistic filenames grouped by the code paths they exercise.
+ */
+public enum FilenameCorpus {
+    /**
+     * Plain US-ASCII, mostly RFC 2616 tokens, some needing quotes.
+     */
+    ASCII(
+            "report-2026-10.pdf",
+            "invoice_12345.zip",
+            "README.md",
+            "Quarterly Report Q3.xlsx",
+            "holiday photo (1).jpg",
+            "backup.2026-10-18.tar.gz",
+            "the%20plans.pdf",
+            "\"quoted\" name.txt"
+    ),
+    /**
+     * ISO-8859-1 only: needs no filename* parameter.
+     */
+    LATIN1(
+            "Übersicht März.pdf",
+            "café crème.docx",
+            "Führerschein.pdf",
+            "«plans: µ».pdf",
+            "Ærøskøbing.jpg",
+            "señor_año.csv",
+            "Straße-Nr.5.txt",
+            "¿Qué?.odt"
+    ),
+    /**
+     * European text outside ISO-8859-1: Latin Extended, Greek, Cyrillic and typographic punctuation.
+     */
+    EUROPEAN(
+            "Łódź – plan miasta.pdf",
+            "Œuvres complètes “tome 2”.epub",
+            "Ελληνικά έγγραφα.docx",
+            "Отчёт за октябрь.xlsx",
+            "Česká republika – přehled.pptx",
+            "Ärztekammer’s Bericht….pdf",
+            "Đà Nẵng trip.jpg",
+            "Київ 2026 € budget.csv"
+    ),
+    /**
+     * Chinese/Japanese/Korean: every character is pct-encoded to 3 UTF-8 octets.
+     */
+    CJK(
+            "東京タワー.jpg",
+            "会议记录 2026.docx",
+            "사진 모음.zip",
+            "報告書_最終版.pdf",
+            "北京欢迎你.mp3",
+            "日本語のファイル名.txt",
+            "서울 지도.png",
+            "财务报表-十月.xlsx"
+    ),
+    /**
+     * Emoji: characters outside the BMP (surrogate pairs, 4 UTF-8 octets) and joiner sequences.
+     */
+    EMOJI(
+            "I ❤ Ada Lovelace.txt",
+            "party 🎉🎂.png",
+            "😀😃😄.gif",
+            "rocket 🚀 launch 👩‍🚀.mov",
+            "👍.pdf",
+            "family 👨‍👩‍👧‍👦 vacation.zip",
+            "🔥hot take🔥.md",
+            "€ rates 💶.xlsx"
+    ),
+    /**
+     * 255 characters: the usual file system limit.
+     */
+    LONG_255(
+            repeatToLength("Very long ASCII filename for the quarterly report_", 255, ".pdf"),
+            repeatToLength("Überlange Dateinamen mit Umlauten äöü ", 255, ".pdf"),
+            repeatToLength("非常に長いファイル名のテスト", 255, ".pdf"),
+            repeatToLength("emoji 🎉 mixed ", 255, ".png")
+    ),
+    ;
+
+    private final String[] filenames;
+
+    FilenameCorpus(String... filenames) {
+        this.filenames = requireNonNull(filenames);
+    }
+
+    public String[] filenames() {
+        return filenames.clone();
+    }
+
+    /**
+     * Repeats the pattern until the result (including suffix) has exactly length code points.
+     */
+    static String repeatToLength(String pattern, int length, String suffix) {
+        int patternCodePoints = pattern.codePointCount(0, pattern.length());
+        int remaining = length - suffix.codePointCount(0, suffix.length());
+
+        StringBuilder sb = new StringBuilder();
+        while (remaining >= patternCodePoints) {
+            sb.append(pattern);
+            remaining -= patternCodePoints;
+        }
+        sb.append(pattern, 0, pattern.offsetByCodePoints(0, remaining));
+        sb.append(suffix);
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.Disposition;
+import com.github.HonoluluHenk.httpcontentdisposition.HeaderRenderer;
+import com.github.HonoluluHenk.httpcontentdisposition.HeaderValueCache;
+import com.github.HonoluluHenk.httpcontentdisposition.HttpContentDisposition;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end: what does one Content-Disposition header cost per download response?
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HttpContentDispositionBenchmark {
+
+    /**
+     * Short enough to shorten the LONG_255 and some CJK filenames.
+     */
+    private static final int MAX_HEADER_LENGTH = 200;
+
+    private final HeaderValueCache cache = new HeaderValueCache(1000);
+    private HttpContentDisposition[] headers;
+    private HttpContentDisposition[] cachedHeaders;
+    private HttpContentDisposition[] sizedHeaders;
+    private HttpContentDisposition[] continuationHeaders;
+    private HttpContentDisposition[] limitedHeaders;
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(4096);
+    private final ThreadLocal<HeaderRenderer> renderer = ThreadLocal.withInitial(HeaderRenderer::new);
+    private final EncodeIsoFallback isoFallback = new EncodeIsoFallback();
+
+    @Setup
+    public void setUp(CorpusState corpus) {
+        String[] filenames = corpus.filenames();
+        headers = new HttpContentDisposition[filenames.length];
+        cachedHeaders = new HttpContentDisposition[filenames.length];
+        sizedHeaders = new HttpContentDisposition[filenames.length];
+        continuationHeaders = new HttpContentDisposition[filenames.length];
+        limitedHeaders = new HttpContentDisposition[filenames.length];
+        for (int i = 0; i < filenames.length; i++) {
+            headers[i] = HttpContentDisposition.builder()
+                    .disposition(Disposition.ATTACHMENT)
+                    .filename(filenames[i])
+                    .locale(Locale.GERMANY)
+                    .build();
+            cachedHeaders[i] = headers[i].toBuilder()
+                    .cache(cache)
+                    .build();
+            sizedHeaders[i] = headers[i].toBuilder()
+                    .size(sizeOf(i))
+                    .build();
+            continuationHeaders[i] = headers[i].toBuilder()
+                    .maxSegmentLength(60)
+                    .build();
+            limitedHeaders[i] = headers[i].toBuilder()
+                    .maxHeaderLength(MAX_HEADER_LENGTH)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public String headerValue(CorpusState corpus) {
+        return headers[corpus.nextIndex()].headerValue();
+    }
+
+    /**
+     * Render into a reused header buffer, as servers holding their own buffer would.
+     */
+    @Benchmark
+    public int headerValueIntoBuffer(CorpusState corpus) {
+        buffer.setLength(0);
+        headers[corpus.nextIndex()].headerValue(buffer);
+
+        return buffer.length();
+    }
+
+    /**
+     * NIO servers: write the header line into a (pooled) direct buffer.
+     */
+    @Benchmark
+    public int writeToDirectBuffer(CorpusState corpus) {
+        directBuffer.clear();
+
+        return headers[corpus.nextIndex()].writeTo(directBuffer);
+    }
+
+    /**
+     * With an RFC 2183 size parameter rendered by the library.
+     */
+    @Benchmark
+    public String headerValueWithSize(CorpusState corpus) {
+        return sizedHeaders[corpus.nextIndex()].headerValue();
+    }
+
+    /**
+     * The workaround before parameters were supported: concatenate the size onto the header value.
+     */
+    @Benchmark
+    public String headerValueConcatenatedSize(CorpusState corpus) {
+        int index = corpus.nextIndex();
+
+        return headers[index].headerValue() + "; size=" + sizeOf(index);
+    }
+
+    /**
+     * filename* split into RFC 2231 continuations of at most 60 chars.
+     */
+    @Benchmark
+    public String headerValueWithContinuations(CorpusState corpus) {
+        return continuationHeaders[corpus.nextIndex()].headerValue();
+    }
+
+    /**
+     * Filenames get shortened if the header value exceeds {@link #MAX_HEADER_LENGTH}.
+     */
+    @Benchmark
+    public String headerValueWithMaxHeaderLength(CorpusState corpus) {
+        return limitedHeaders[corpus.nextIndex()].headerValue();
+    }
+
+    /**
+     * The exact length of {@link #headerValue(CorpusState)} without rendering it, e.g. to pre-size a buffer.
+     */
+    @Benchmark
+    public int encodedLength(CorpusState corpus) {
+        return headers[corpus.nextIndex()].encodedLength();
+    }
+
+    private static long sizeOf(int index) {
+        return 1_048_576L + index * 4099L;
+    }
+
+    /**
+     * All filenames fit into the {@link HeaderValueCache}: measures the lookup.
+     */
+    @Benchmark
+    public String headerValueCached(CorpusState corpus) {
+        return cachedHeaders[corpus.nextIndex()].headerValue();
+    }
+
+    /**
+     * The usual servlet code path: build a new instance per response.
+     */
+    @Benchmark
+    public String builderAndHeaderValue(CorpusState corpus) {
+        return HttpContentDisposition.builder()
+                .disposition(Disposition.ATTACHMENT)
+                .filename(corpus.nextFilename())
+                .locale(Locale.GERMANY)
+                .build()
+                .headerValue();
+    }
+
+    /**
+     * Same as {@link #builderAndHeaderValue}, but without the builder: a thread-confined renderer.
+     */
+    @Benchmark
+    public String threadLocalRenderer(CorpusState corpus) {
+        return renderer.get().render(Disposition.ATTACHMENT, corpus.nextFilename(), isoFallback, Locale.GERMANY);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.CachingIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.TransliteratingIsoFallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Producing the ISO-8859-1 filename for legacy clients.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class IsoFallbackBenchmark {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final EncodeIsoFallback encode = new EncodeIsoFallback();
+    private final TransliteratingIsoFallback transliterating = new TransliteratingIsoFallback();
+    private final CachingIsoFallback transliteratingCached = new CachingIsoFallback(transliterating, 1000);
+
+    /**
+     * Baseline: plain ISO-8859-1 conversion, everything else becomes '?'.
+     */
+    @Benchmark
+    public String encode(CorpusState corpus) {
+        return encode.fallback(corpus.nextFilename());
+    }
+
+    @Benchmark
+    public String transliterating(CorpusState corpus) {
+        return transliterating.fallback(corpus.nextFilename());
+    }
+
+    /**
+     * All filenames fit into the cache: measures the lookup.
+     */
+    @Benchmark
+    public String transliteratingCached(CorpusState corpus) {
+        return transliteratingCached.fallback(corpus.nextFilename());
+    }
+
+    /**
+     * The usual hand rolled transliteration: strip the accents from the decomposition per call.
+     */
+    @Benchmark
+    public String normalizer(CorpusState corpus) {
+        String decomposed = Normalizer.normalize(corpus.nextFilename(), Normalizer.Form.NFKD);
+
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+}
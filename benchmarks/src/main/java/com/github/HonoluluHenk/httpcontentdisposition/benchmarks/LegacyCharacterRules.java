@@ -0,0 +1,100 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Verbatim copies of the character rules before they got backed by lookup tables (release 1.0.4).
+ * <p>
+ * Only kept as baseline for {@link CharacterRulesBenchmark}.
+ */
+final class LegacyCharacterRules {
+    private LegacyCharacterRules() {
+        // utility class
+    }
+
+    private static final Set<Character> SEPARATOR_CHARS = new HashSet<>(Arrays.asList(
+            '(', ')', '<', '>', '@',
+            ',', ';', ':', '\\', '\"',
+            '/', '[', ']', '?', '=',
+            '{', '}', ' ', '\t'
+    ));
+
+    private static final Set<Character> ATTR_CHAR_SPECIALS = new HashSet<>(Arrays.asList(
+            '!', '#', '$', '&', '+', '-', '.',
+            '^', '_', '`', '|', '~'
+    ));
+
+    // RFC2616CharacterRules.isTokenChar
+
+    static boolean rfc2616IsTokenChar(int codePoint) {
+        return isBetween(codePoint, 0, 127)
+                && !(isBetween(codePoint, 0, 31) || codePoint == 127)
+                && !rfc2616IsSeparator(codePoint);
+    }
+
+    private static boolean rfc2616IsSeparator(int codePoint) {
+        if (!isBetween(codePoint, 0, 255)) {
+            return false;
+        }
+
+        char c = (char) codePoint;
+        return SEPARATOR_CHARS.contains(c);
+    }
+
+    // RFC2231CharacterRules.isAttributeChar
+
+    static boolean rfc2231IsAttributeChar(int codePoint) {
+        return isBetween(codePoint, 0, 127)
+                && codePoint != 32
+                && !(isBetween(codePoint, 0, 31) || codePoint == 127)
+                && !isOneOf(codePoint, '*', '\'', '%')
+                && !(isBetween(codePoint, 0, 127)
+                && isOneOf(codePoint,
+                '(', ')', '<', '>', '@',
+                ',', ';', ':', '\\', '"',
+                '/', '[', ']', '?', '='));
+    }
+
+    // RFC5987CharacterRules.isAttrChar
+
+    static boolean rfc5987IsAttrChar(int codePoint) {
+        return isBetween(codePoint, 'A', 'Z') || isBetween(codePoint, 'a', 'z')
+                || isBetween(codePoint, '0', '9')
+                || rfc5987IsAttrSpecialChar(codePoint);
+    }
+
+    private static boolean rfc5987IsAttrSpecialChar(int codePoint) {
+        if (!isBetween(codePoint, 0x00, 0xFF)) {
+            return false;
+        }
+
+        char character = (char) codePoint;
+
+        return ATTR_CHAR_SPECIALS.contains(character);
+    }
+
+    // RFC8187CharacterRules.isAttrChar
+
+    static boolean rfc8187IsAttrChar(int codePoint) {
+        return isBetween(codePoint, 'A', 'Z') || isBetween(codePoint, 'a', 'z')
+                || isBetween(codePoint, '0', '9')
+                || isOneOf(codePoint,
+                '!', '#', '$', '&', '+', '-', '.',
+                '^', '_', '`', '|', '~');
+    }
+
+    private static boolean isBetween(int codePoint, int lowerBound, int upperBound) {
+        return lowerBound <= codePoint && codePoint <= upperBound;
+    }
+
+    private static boolean isOneOf(int codePoint, char... chars) {
+        for (char aChar : chars) {
+            if (aChar == codePoint) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.CharsetEncoder;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RFC2616CharacterRulesBenchmark {
+    private final RFC2616CharacterRules rules = RFC2616CharacterRules.getInstance();
+    private final ThreadLocal<CharsetEncoder> isoEncoder = ThreadLocal.withInitial(ISO_8859_1::newEncoder);
+
+    @Benchmark
+    public boolean isToken(CorpusState corpus) {
+        return rules.isToken(corpus.nextFilename());
+    }
+
+    /**
+     * Latin-1 detection, i.e.: is the filename* parameter needed?
+     */
+    @Benchmark
+    public boolean isOctets(CorpusState corpus) {
+        String filename = corpus.nextFilename();
+
+        return rules.octetPrefixLength(filename) == filename.length();
+    }
+
+    /**
+     * Baseline: the stream based check used up to release 1.0.4.
+     */
+    @Benchmark
+    public boolean isOctetsStream(CorpusState corpus) {
+        return corpus.nextFilename().codePoints().allMatch(rules::isOCTET);
+    }
+
+    /**
+     * Alternative: let the JDK charset encoder decide.
+     */
+    @Benchmark
+    public boolean isOctetsCanEncode(CorpusState corpus) {
+        return isoEncoder.get().canEncode(corpus.nextFilename());
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.HonoluluHenk.httpcontentdisposition.benchmarks;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.Encoded;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Encoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RFC8187EncoderBenchmark {
+    /**
+     * A dozen locales, as seen in typical traffic.
+     */
+    private static final Locale[] LOCALES = {
+            Locale.GERMANY, Locale.US, Locale.UK, Locale.FRANCE, Locale.ITALY, Locale.JAPAN,
+            Locale.CHINA, Locale.KOREA, Locale.CANADA_FRENCH, new Locale("de", "CH"), new Locale("es", "ES"),
+            new Locale("pt", "BR"),
+    };
+
+    private final RFC8187Encoder encoder = new RFC8187Encoder();
+    private int localeIndex = 0;
+
+    @Benchmark
+    public Encoded encodeExtValue(CorpusState corpus) {
+        return encoder.encodeExtValue(corpus.nextFilename());
+    }
+
+    @Benchmark
+    public Encoded encodeExtValueWithLocale(CorpusState corpus) {
+        return encoder.encodeExtValue(corpus.nextFilename(), Locale.GERMANY);
+    }
+
+    @Benchmark
+    public String parseLanguageTag() {
+        return encoder.parseLanguageTag(nextLocale());
+    }
+
+    /**
+     * What {@link RFC8187Encoder#parseLanguageTag(Locale)} did per call before the language tags got cached.
+     */
+    @Benchmark
+    public String parseLanguageTagUncached() {
+        Locale locale = nextLocale();
+
+        return new Locale(locale.getLanguage(), locale.getCountry()).toLanguageTag();
+    }
+
+    private Locale nextLocale() {
+        Locale result = LOCALES[localeIndex];
+        localeIndex = (localeIndex + 1) % LOCALES.length;
+
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.HonoluluHenk.httpcontentdisposition.loadtest;
+
+import com.github.HonoluluHenk.httpcontentdisposition.Disposition;
+import com.github.HonoluluHenk.httpcontentdisposition.HttpContentDisposition;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a small download on the loopback interface.
+ * <p>
+ * {@code GET /disposition/<corpus>/<index>} renders the Content-Disposition header of the file per request,
+ * as a download servlet would. {@code GET /plain/<corpus>/<index>} serves the same response without it:
+ * the difference between both is what the header costs on the request path.
+ */
+final class DownloadServer implements AutoCloseable {
+    static final String WITH_HEADER = "/disposition/";
+    static final String WITHOUT_HEADER = "/plain/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<FilenameCorpus, String[]> filenames = new EnumMap<>(FilenameCorpus.class);
+    private final byte[] body;
+
+    DownloadServer(int threads, int bodySize) throws IOException {
+        for (FilenameCorpus corpus : FilenameCorpus.values()) {
+            filenames.put(corpus, corpus.filenames());
+        }
+        body = new byte[bodySize];
+        Arrays.fill(body, (byte) 'x');
+
+        // headers and body get written separately: without TCP_NODELAY every response waits for a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(WITH_HEADER, exchange -> serve(exchange, true));
+        server.createContext(WITHOUT_HEADER, exchange -> serve(exchange, false));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI uri(String context, FilenameCorpus corpus, int index) {
+        InetSocketAddress address = server.getAddress();
+
+        return URI.create("http://" + address.getHostString() + ':' + address.getPort()
+                + context + corpus.name() + '/' + index);
+    }
+
+    private void serve(HttpExchange exchange, boolean withHeader) throws IOException {
+        try {
+            // <context>/<corpus>/<index>
+            String path = exchange.getRequestURI().getPath();
+            int indexStart = path.lastIndexOf('/');
+            int corpusStart = path.lastIndexOf('/', indexStart - 1);
+            FilenameCorpus corpus = FilenameCorpus.valueOf(path.substring(corpusStart + 1, indexStart));
+            String filename = filenames.get(corpus)[Integer.parseInt(path.substring(indexStart + 1))];
+
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            if (withHeader) {
+                HttpContentDisposition header = HttpContentDisposition.builder()
+                        .disposition(Disposition.ATTACHMENT)
+                        .filename(filename)
+                        .locale(Locale.GERMANY)
+                        .size(body.length)
+                        .build();
+                exchange.getResponseHeaders().set(header.headerName(), header.headerValue());
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            // on failure the client sees a closed connection and counts an error
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.HonoluluHenk.httpcontentdisposition.loadtest;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The filenames served by the {@link DownloadServer}: the cheapest and the most expensive header values.
+ */
+public enum FilenameCorpus {
+    /**
+     * Plain US-ASCII, mostly RFC 2616 tokens: no filename* parameter.
+     */
+    ASCII(
+            "report-2026-10.pdf",
+            "invoice_12345.zip",
+            "README.md",
+            "Quarterly Report Q3.xlsx",
+            "holiday photo (1).jpg",
+            "backup.2026-10-18.tar.gz",
+            "the%20plans.pdf",
+            "\"quoted\" name.txt"
+    ),
+    /**
+     * CJK, emoji and long names: (almost) every character is pct-encoded to 3 or 4 UTF-8 octets.
+     */
+    ENCODED(
+            "東京タワー.jpg",
+            "会议记录 2026.docx",
+            "사진 모음.zip",
+            "rocket 🚀 launch 👩‍🚀.mov",
+            "family 👨‍👩‍👧‍👦 vacation.zip",
+            "Отчёт за октябрь.xlsx",
+            repeat("非常に長いファイル名のテスト", 9) + ".pdf",
+            repeat("emoji 🎉 mixed ", 10) + ".png"
+    ),
+    ;
+
+    private final String[] filenames;
+
+    FilenameCorpus(String... filenames) {
+        this.filenames = requireNonNull(filenames);
+    }
+
+    public String[] filenames() {
+        return filenames.clone();
+    }
+
+    private static String repeat(String pattern, int count) {
+        StringBuilder sb = new StringBuilder(pattern.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(pattern);
+        }
+
+        return sb.toString();
+    }
+}
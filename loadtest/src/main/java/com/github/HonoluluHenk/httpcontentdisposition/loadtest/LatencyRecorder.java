@@ -0,0 +1,63 @@
+package com.github.HonoluluHenk.httpcontentdisposition.loadtest;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * Records every single latency (in nanoseconds) of one client thread.
+ * <p>
+ * Keeping all samples (a few MB per run) gives exact percentiles without a histogram library.
+ * Recorders of all threads get {@link #merge(LatencyRecorder...) merged} after the run.
+ */
+@NotThreadSafe
+final class LatencyRecorder {
+    private long[] samples = new long[64 * 1024];
+    private int size = 0;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return all samples, sorted.
+     */
+    static long[] merge(LatencyRecorder... recorders) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.size;
+        }
+
+        long[] result = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, result, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(result);
+
+        return result;
+    }
+
+    /**
+     * Nearest-rank percentile.
+     *
+     * @param sorted see {@link #merge(LatencyRecorder...)}.
+     * @param percentile e.g. 99.9
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
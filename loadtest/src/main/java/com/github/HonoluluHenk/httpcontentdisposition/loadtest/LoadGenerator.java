@@ -0,0 +1,128 @@
+package com.github.HonoluluHenk.httpcontentdisposition.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load at fixed concurrency: each client thread sends the next request as soon as the previous one
+ * has been answered, cycling through the files of one corpus.
+ */
+final class LoadGenerator implements AutoCloseable {
+    private static final String HEADER_NAME = "Content-Disposition";
+
+    private final DownloadServer server;
+    private final int concurrency;
+    private final HttpClient client;
+    private final ExecutorService clientThreads;
+
+    LoadGenerator(DownloadServer server, int concurrency) {
+        this.server = server;
+        this.concurrency = concurrency;
+        this.clientThreads = Executors.newFixedThreadPool(concurrency);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * @param context {@link DownloadServer#WITH_HEADER} or {@link DownloadServer#WITHOUT_HEADER}.
+     */
+    Result run(String context, FilenameCorpus corpus, Duration duration) throws Exception {
+        boolean withHeader = DownloadServer.WITH_HEADER.equals(context);
+        int files = corpus.filenames().length;
+        HttpRequest[] requests = new HttpRequest[files];
+        for (int i = 0; i < files; i++) {
+            URI uri = server.uri(context, corpus, i);
+            requests[i] = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        LatencyRecorder[] recorders = new LatencyRecorder[concurrency];
+        Future<?>[] futures = new Future<?>[concurrency];
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (int t = 0; t < concurrency; t++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders[t] = recorder;
+            // spread the threads over the files
+            int first = t;
+            futures[t] = clientThreads.submit(() -> {
+                int index = first;
+                long now = System.nanoTime();
+                while (now < end) {
+                    HttpRequest request = requests[index % files];
+                    index++;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long done = System.nanoTime();
+                        if (response.statusCode() == 200
+                                && response.headers().firstValue(HEADER_NAME).isPresent() == withHeader) {
+                            recorder.record(done - now);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                        now = done;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        now = System.nanoTime();
+                    }
+                }
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(LatencyRecorder.merge(recorders), errors.get(), elapsed);
+    }
+
+    @Override
+    public void close() {
+        clientThreads.shutdownNow();
+    }
+
+    static final class Result {
+        private final long[] sortedLatencies;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Result(long[] sortedLatencies, long errors, long elapsedNanos) {
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        long requests() {
+            return sortedLatencies.length;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        double throughputPerSecond() {
+            return sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * In microseconds.
+         */
+        double percentileMicros(double percentile) {
+            return LatencyRecorder.percentile(sortedLatencies, percentile) / 1e3;
+        }
+    }
+}
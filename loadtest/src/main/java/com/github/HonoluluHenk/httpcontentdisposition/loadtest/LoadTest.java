@@ -0,0 +1,103 @@
+package com.github.HonoluluHenk.httpcontentdisposition.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Entry point of the loadtest jar.
+ * <p>
+ * Starts a {@link DownloadServer} on localhost and drives it with the JDK {@code HttpClient}
+ * at fixed concurrency, for each {@link FilenameCorpus} with and without the Content-Disposition header.
+ * Reports throughput and p50/p99/p99.9 latency. Client and server share the machine (and its CPUs):
+ * compare the rows of one run, not absolute numbers between machines.
+ */
+public final class LoadTest {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar loadtest.jar [options]",
+            "  -c <threads>   concurrent client threads (and server threads), default: 16",
+            "  -w <seconds>   warmup per scenario, default: 5",
+            "  -d <seconds>   measurement per scenario, default: 10",
+            "  -b <bytes>     response body size, default: 1024",
+            "  -h             this help");
+
+    private int concurrency = 16;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(10);
+    private int bodySize = 1024;
+
+    private LoadTest() {
+        // main class
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest();
+        if (!loadTest.parse(args)) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        loadTest.run();
+    }
+
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("-h".equals(option)) {
+                return false;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of option: " + option);
+            }
+
+            int value = Integer.parseInt(args[++i]);
+            switch (option) {
+                case "-c":
+                    concurrency = value;
+                    break;
+                case "-w":
+                    warmup = Duration.ofSeconds(value);
+                    break;
+                case "-d":
+                    duration = Duration.ofSeconds(value);
+                    break;
+                case "-b":
+                    bodySize = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option + System.lineSeparator() + USAGE);
+            }
+        }
+
+        return true;
+    }
+
+    private void run() throws Exception {
+        System.out.printf(Locale.ROOT, "concurrency: %d, warmup: %ds, measurement: %ds, body: %d bytes%n%n",
+                concurrency, warmup.getSeconds(), duration.getSeconds(), bodySize);
+        System.out.printf(Locale.ROOT, "%-8s %-7s %10s %10s %10s %10s %10s %7s%n",
+                "corpus", "header", "requests", "req/s", "p50 us", "p99 us", "p99.9 us", "errors");
+
+        try (DownloadServer server = new DownloadServer(concurrency, bodySize);
+             LoadGenerator generator = new LoadGenerator(server, concurrency)) {
+            for (FilenameCorpus corpus : FilenameCorpus.values()) {
+                // both variants get warmed up first so the second one does not profit from the first's JIT work
+                generator.run(DownloadServer.WITHOUT_HEADER, corpus, warmup);
+                generator.run(DownloadServer.WITH_HEADER, corpus, warmup);
+
+                print(corpus, "without", generator.run(DownloadServer.WITHOUT_HEADER, corpus, duration));
+                print(corpus, "with", generator.run(DownloadServer.WITH_HEADER, corpus, duration));
+            }
+        }
+    }
+
+    private static void print(FilenameCorpus corpus, String header, LoadGenerator.Result result) {
+        System.out.printf(Locale.ROOT, "%-8s %-7s %10d %10.0f %10.1f %10.1f %10.1f %7d%n",
+                corpus, header,
+                result.requests(),
+                result.throughputPerSecond(),
+                result.percentileMicros(50),
+                result.percentileMicros(99),
+                result.percentileMicros(99.9),
+                result.errors());
+    }
+}
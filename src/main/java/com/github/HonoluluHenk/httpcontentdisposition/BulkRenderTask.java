@@ -0,0 +1,93 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join rendering of a range of filenames, see: {@link HttpContentDisposition#renderAllParallel}.
+ * <p>
+ * Ranges get split until they are small enough, each leaf then renders its range sequentially using its own
+ * (thread confined) {@link HeaderRenderer}.
+ * Every leaf writes to its own slots of the result array, so the input order is kept without any merging.
+ */
+final class BulkRenderTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Below this, splitting costs more than it gains.
+     */
+    private static final int MIN_LEAF_SIZE = 256;
+
+    /**
+     * Leaves per worker: some slack so workers finishing early can steal.
+     */
+    private static final int LEAVES_PER_WORKER = 4;
+
+    private final Disposition disposition;
+    private final String[] filenames;
+    private final IsoFallback isoFallback;
+    @Nullable
+    private final Locale locale;
+    private final String[] result;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    private BulkRenderTask(
+            Disposition disposition,
+            String[] filenames,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            String[] result,
+            int from,
+            int to,
+            int leafSize
+    ) {
+        this.disposition = disposition;
+        this.filenames = filenames;
+        this.isoFallback = isoFallback;
+        this.locale = locale;
+        this.result = result;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    static BulkRenderTask create(
+            Disposition disposition,
+            String[] filenames,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            String[] result,
+            int parallelism
+    ) {
+        int leafSize = Math.max(MIN_LEAF_SIZE, filenames.length / (parallelism * LEAVES_PER_WORKER));
+
+        return new BulkRenderTask(disposition, filenames, isoFallback, locale, result, 0, filenames.length, leafSize);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= leafSize) {
+            renderRange();
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(
+                new BulkRenderTask(disposition, filenames, isoFallback, locale, result, from, middle, leafSize),
+                new BulkRenderTask(disposition, filenames, isoFallback, locale, result, middle, to, leafSize)
+        );
+    }
+
+    private void renderRange() {
+        HeaderRenderer renderer = new HeaderRenderer();
+
+        for (int i = from; i < to; i++) {
+            result[i] = renderer.render(disposition, filenames[i], isoFallback, locale);
+        }
+    }
+}
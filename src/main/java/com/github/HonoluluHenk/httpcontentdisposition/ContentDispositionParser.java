@@ -0,0 +1,391 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Latin1CharSequence;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Decoder;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses a Content-Disposition header value as described in
+ * <a href="https://tools.ietf.org/html/rfc6266#section-4.1">RFC 6266, Section 4.1</a>.
+ * <p>
+ * content-disposition = "Content-Disposition" ":" disposition-type *( ";" disposition-parm )
+ * <p>
+ * Parsing only records offsets into the input, nothing gets copied.
+ * The parameters are only scanned if one is asked for and values are only unquoted/decoded when asked for:
+ * a check like {@link ParsedContentDisposition#isAttachment()} costs a single scan over the disposition-type.
+ * See: {@link ParsedContentDisposition}.
+ * Byte input is read as ISO-8859-1, just as HTTP header octets are.
+ * <p>
+ * The parser is lenient where real world clients are sloppy:
+ * whitespace around "=", a trailing ";" and unescaped backslashes in quoted-strings are accepted.
+ * The latter include the output of {@link HttpContentDisposition}: it only escapes quotes, not backslashes.
+ * <p>
+ * <a href="https://tools.ietf.org/html/rfc2231#section-3">RFC 2231</a> continuations
+ * (e.g.: {@code filename*0*=UTF-8''...; filename*1*=...}) are accepted and get reassembled on access.
+ */
+@ThreadSafe
+public class ContentDispositionParser {
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+    private static final RFC8187Decoder RFC_8187_DECODER = new RFC8187Decoder();
+
+    private static final int INITIAL_PARAMETER_CAPACITY = 4;
+    private static final int NOT_TERMINATED = -1;
+    /**
+     * More digits are not taken as a continuation section number (and would overflow an int).
+     */
+    private static final int MAX_SECTION_DIGITS = 9;
+
+    /**
+     * Parses the disposition-type, the parameters get parsed on first access.
+     *
+     * @throws IllegalArgumentException if the disposition-type is not valid.
+     *                                  Invalid parameters are reported by the first parameter getter called.
+     */
+    public ParsedContentDisposition parse(CharSequence headerValue) {
+        requireNonNull(headerValue, "headerValue must be given");
+
+        Scanner scanner = new Scanner(headerValue);
+        int parametersStart = scanner.scanType();
+
+        return new ParsedContentDisposition(headerValue, scanner.typeStart, scanner.typeEnd, parametersStart);
+    }
+
+    /**
+     * Same as {@link #parse(CharSequence)}, reading the bytes as ISO-8859-1.
+     * <p>
+     * The result references the bytes: they must not change while the result is in use.
+     */
+    public ParsedContentDisposition parse(byte[] headerValue, int offset, int length) {
+        requireNonNull(headerValue, "headerValue must be given");
+
+        return parse(Latin1CharSequence.of(headerValue, offset, length));
+    }
+
+    public ParsedContentDisposition parse(byte[] headerValue) {
+        return parse(headerValue, 0, headerValue.length);
+    }
+
+    /**
+     * Same as {@link #parse(CharSequence)} for the remaining bytes of the buffer, reading them as ISO-8859-1.
+     * <p>
+     * Position and limit of the buffer are not modified.
+     * The result references the buffer contents: they must not change while the result is in use.
+     */
+    public ParsedContentDisposition parse(ByteBuffer headerValue) {
+        requireNonNull(headerValue, "headerValue must be given");
+
+        return parse(Latin1CharSequence.of(headerValue));
+    }
+
+    /**
+     * Only the disposition-type gets parsed, see: {@link #parse(CharSequence)}.
+     *
+     * @throws IllegalArgumentException if the disposition-type is not valid.
+     */
+    public Optional<Disposition> parseDisposition(CharSequence headerValue) {
+        requireNonNull(headerValue, "headerValue must be given");
+
+        Scanner scanner = new Scanner(headerValue);
+        scanner.scanType();
+
+        return Disposition.fromText(headerValue, scanner.typeStart, scanner.typeEnd);
+    }
+
+    static final class Scanner {
+        private static final int[] NO_PARAMETERS = new int[0];
+
+        private final CharSequence input;
+        private final int length;
+        private int typeStart = 0;
+        private int typeEnd = 0;
+        private int[] parameters = NO_PARAMETERS;
+        private int parameterCount = 0;
+
+        Scanner(CharSequence input) {
+            this.input = input;
+            this.length = input.length();
+        }
+
+        /**
+         * @return the position where the parameters start.
+         */
+        int scanType() {
+            int pos = skipWhitespace(0);
+            typeStart = pos;
+            pos = skipToken(pos);
+            typeEnd = pos;
+            if (typeStart == typeEnd) {
+                throw parseError("disposition-type expected", pos);
+            }
+
+            pos = skipWhitespace(pos);
+            if (pos < length && input.charAt(pos) != ';') {
+                throw parseError("';' expected", pos);
+            }
+
+            return pos;
+        }
+
+        void scanParameters(int start) {
+            int pos = start;
+
+            while (true) {
+                pos = skipWhitespace(pos);
+                if (pos == length) {
+                    break;
+                }
+                if (input.charAt(pos) != ';') {
+                    throw parseError("';' expected", pos);
+                }
+
+                pos = skipWhitespace(pos + 1);
+                if (pos == length) {
+                    // lenient: trailing ';'
+                    break;
+                }
+
+                pos = scanParameter(pos);
+            }
+        }
+
+        int[] getParameters() {
+            return parameters;
+        }
+
+        int getParameterCount() {
+            return parameterCount;
+        }
+
+        private int scanParameter(int start) {
+            int nameEnd = skipToken(start);
+            if (nameEnd == start) {
+                throw parseError("parameter name expected", start);
+            }
+
+            int pos = skipWhitespace(nameEnd);
+            if (pos == length || input.charAt(pos) != '=') {
+                throw parseError("'=' expected", pos);
+            }
+
+            int valueStart = skipWhitespace(pos + 1);
+            int valueEnd;
+            int flags = 0;
+            if (valueStart < length && input.charAt(valueStart) == '"') {
+                flags |= ParsedContentDisposition.QUOTED;
+                valueEnd = skipQuotedString(valueStart);
+                if (!isParameterEnd(valueEnd)) {
+                    // lenient: some generators (this library too) only escape quotes (e.g.: "a\\"b" for a\"b)
+                    valueEnd = skipQuoteEscapedString(valueStart);
+                    if (valueEnd != NOT_TERMINATED) {
+                        flags |= ParsedContentDisposition.ESCAPED_QUOTES_ONLY;
+                    } else {
+                        // lenient: some generators do not escape anything (e.g.: "C:\"), read backslashes literally
+                        flags |= ParsedContentDisposition.LITERAL_BACKSLASHES;
+                        valueEnd = skipLiteralQuotedString(valueStart);
+                    }
+                }
+            } else {
+                valueEnd = skipToken(valueStart);
+            }
+            if (valueEnd == valueStart) {
+                throw parseError("parameter value expected", valueStart);
+            }
+
+            boolean isExtParameter = input.charAt(nameEnd - 1) == '*';
+            int section = parseSection(start, isExtParameter ? nameEnd - 1 : nameEnd);
+            if (section != ParsedContentDisposition.NO_SECTION) {
+                flags |= ParsedContentDisposition.CONTINUATION;
+            }
+            if (isExtParameter) {
+                // only the first section of a continuation declares charset and language
+                boolean isValid = section > 0
+                        ? RFC_8187_DECODER.isValidValueChars(input, valueStart, valueEnd)
+                        : RFC_8187_DECODER.isValidExtValue(input, valueStart, valueEnd);
+                if (!isValid) {
+                    throw parseError("invalid ext-value", valueStart);
+                }
+                flags |= ParsedContentDisposition.EXT_VALUE;
+                if (section <= 0 && !RFC_8187_DECODER.isSupportedCharset(input, valueStart, valueEnd)) {
+                    // RFC 6266, Section 4.3: to be ignored by the recipient, not an error
+                    flags |= ParsedContentDisposition.UNSUPPORTED_CHARSET;
+                }
+            }
+
+            addParameter(start, nameEnd, valueStart, valueEnd, flags, section);
+
+            return valueEnd;
+        }
+
+        /**
+         * RFC 2231: section = "*" ( "0" / [1-9] *DIGIT ) at the end of a parameter name (before the ext-value "*").
+         *
+         * @return {@link ParsedContentDisposition#NO_SECTION} if input[nameStart, end) is no continuation.
+         */
+        private int parseSection(int nameStart, int end) {
+            int digitsStart = end;
+            while (digitsStart > nameStart && isDigit(input.charAt(digitsStart - 1))) {
+                digitsStart--;
+            }
+
+            int digits = end - digitsStart;
+            boolean hasBaseName = digitsStart - 1 > nameStart && input.charAt(digitsStart - 1) == '*';
+            if (digits == 0 || digits > MAX_SECTION_DIGITS || !hasBaseName
+                    || (digits > 1 && input.charAt(digitsStart) == '0')) {
+                return ParsedContentDisposition.NO_SECTION;
+            }
+
+            int result = 0;
+            for (int i = digitsStart; i < end; i++) {
+                result = result * 10 + (input.charAt(i) - '0');
+            }
+
+            return result;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private void addParameter(int nameStart, int nameEnd, int valueStart, int valueEnd, int flags, int section) {
+            int slot = parameterCount * ParsedContentDisposition.SLOT_SIZE;
+            if (parameters == NO_PARAMETERS) {
+                parameters = new int[INITIAL_PARAMETER_CAPACITY * ParsedContentDisposition.SLOT_SIZE];
+            } else if (slot == parameters.length) {
+                parameters = Arrays.copyOf(parameters, parameters.length * 2);
+            }
+
+            parameters[slot] = nameStart;
+            parameters[slot + 1] = nameEnd;
+            parameters[slot + 2] = valueStart;
+            parameters[slot + 3] = valueEnd;
+            parameters[slot + 4] = flags;
+            parameters[slot + 5] = section;
+            parameterCount++;
+        }
+
+        private int skipWhitespace(int start) {
+            int pos = start;
+            while (pos < length && isWhitespace(input.charAt(pos))) {
+                pos++;
+            }
+
+            return pos;
+        }
+
+        private int skipToken(int start) {
+            int pos = start;
+            while (pos < length && RFC_2616_CHARACTER_RULES.isTokenChar(input.charAt(pos))) {
+                pos++;
+            }
+
+            return pos;
+        }
+
+        /**
+         * Did a value end at pos, i.e.: is it followed by the next parameter or the end of the input?
+         */
+        private boolean isParameterEnd(int pos) {
+            if (pos == NOT_TERMINATED) {
+                return false;
+            }
+
+            int next = skipWhitespace(pos);
+            return next == length || input.charAt(next) == ';';
+        }
+
+        /**
+         * quoted-string  = ( <"> *(qdtext | quoted-pair ) <"> )
+         *
+         * @return the position after the closing quote or {@link #NOT_TERMINATED}
+         */
+        private int skipQuotedString(int start) {
+            // skip the opening quote
+            int pos = start + 1;
+
+            while (pos < length) {
+                char c = input.charAt(pos);
+                if (c == '"') {
+                    return pos + 1;
+                }
+                if (c == '\\') {
+                    // quoted-pair
+                    pos++;
+                    if (pos == length) {
+                        break;
+                    }
+                } else {
+                    checkQdtext(c, pos);
+                }
+                pos++;
+            }
+
+            return NOT_TERMINATED;
+        }
+
+        /**
+         * Same as {@link #skipQuotedString(int)} but only backslash + quote is a quoted-pair, other backslashes are literal.
+         * <p>
+         * A trailing backslash makes the closing quote look escaped (e.g.: "a\" for a\):
+         * if no unescaped quote ends the value, the last escaped quote that could end it does.
+         *
+         * @return the position after the closing quote (followed by ";" or the end) or {@link #NOT_TERMINATED}
+         */
+        private int skipQuoteEscapedString(int start) {
+            int lastPossibleEnd = NOT_TERMINATED;
+
+            for (int pos = start + 1; pos < length; pos++) {
+                char c = input.charAt(pos);
+                if (c == '"') {
+                    return isParameterEnd(pos + 1) ? pos + 1 : lastPossibleEnd;
+                }
+                if (c == '\\' && pos + 1 < length && input.charAt(pos + 1) == '"') {
+                    pos++;
+                    if (isParameterEnd(pos + 1)) {
+                        lastPossibleEnd = pos + 1;
+                    }
+                } else {
+                    checkQdtext(c, pos);
+                }
+            }
+
+            return lastPossibleEnd;
+        }
+
+        /**
+         * Same as {@link #skipQuotedString(int)} but without quoted-pairs: the next quote terminates the string.
+         */
+        private int skipLiteralQuotedString(int start) {
+            for (int pos = start + 1; pos < length; pos++) {
+                char c = input.charAt(pos);
+                if (c == '"') {
+                    return pos + 1;
+                }
+                checkQdtext(c, pos);
+            }
+
+            throw parseError("unterminated quoted-string", start);
+        }
+
+        private void checkQdtext(char c, int pos) {
+            if (RFC_2616_CHARACTER_RULES.isCTL(c) && c != '\t') {
+                throw parseError("control character in quoted-string", pos);
+            }
+        }
+
+        private boolean isWhitespace(char c) {
+            return c == ' ' || c == '\t';
+        }
+
+        private IllegalArgumentException parseError(String message, int pos) {
+            return new IllegalArgumentException(
+                    "Invalid Content-Disposition, " + message + " at position " + pos + ": " + input);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.github.HonoluluHenk.httpcontentdisposition;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 
-import java.util.Locale;
 import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
@@ -12,28 +11,96 @@ public enum Disposition {
     ATTACHMENT("attachment"),
     ;
 
+    /**
+     * values() clones the array on every call.
+     */
+    private static final Disposition[] VALUES = values();
+
     private final String headerAttribute;
+    /**
+     * Precomputed starts of the header value, e.g.: {@code attachment; filename=}:
+     * rendering appends them in one bulk copy.
+     */
+    private final String tokenFilenamePrefix;
+    private final String quotedFilenamePrefix;
+    /**
+     * fromText() is used on hot parsing paths: do not allocate a new Optional per lookup.
+     */
+    private final Optional<Disposition> asOptional;
 
     Disposition(String headerAttribute) {
         this.headerAttribute = requireNonNull(headerAttribute);
+        this.tokenFilenamePrefix = headerAttribute + "; filename=";
+        this.quotedFilenamePrefix = tokenFilenamePrefix + '"';
+        this.asOptional = Optional.of(this);
     }
 
     public String getHeaderAttribute() {
         return headerAttribute;
     }
 
+    /**
+     * {@code <headerAttribute>; filename=}
+     */
+    String getTokenFilenamePrefix() {
+        return tokenFilenamePrefix;
+    }
+
+    /**
+     * {@code <headerAttribute>; filename="}
+     */
+    String getQuotedFilenamePrefix() {
+        return quotedFilenamePrefix;
+    }
+
     public static Optional<Disposition> fromText(@Nullable String disposition) {
         if (disposition == null) {
             return Optional.empty();
         }
 
-        String normalized = disposition.toLowerCase(Locale.US).trim();
-        for (Disposition entry : values()) {
-            if (entry.headerAttribute.equals(normalized)) {
-                return Optional.of(entry);
+        return fromText(disposition, 0, disposition.length());
+    }
+
+    /**
+     * Same as {@link #fromText(String)} for the range [start, end) of text, without allocating.
+     * <p>
+     * Case-insensitive (US-ASCII only) and lenient with surrounding whitespace.
+     */
+    public static Optional<Disposition> fromText(CharSequence text, int start, int end) {
+        // same as String.trim()
+        int first = start;
+        int last = end;
+        while (first < last && text.charAt(first) <= ' ') {
+            first++;
+        }
+        while (last > first && text.charAt(last - 1) <= ' ') {
+            last--;
+        }
+
+        for (Disposition entry : VALUES) {
+            if (entry.matches(text, first, last)) {
+                return entry.asOptional;
             }
         }
 
         return Optional.empty();
     }
+
+    private boolean matches(CharSequence text, int start, int end) {
+        int length = headerAttribute.length();
+        if (end - start != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            // headerAttribute is lower case US-ASCII
+            char lower = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+            if (lower != headerAttribute.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
@@ -0,0 +1,262 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Util;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.CachingIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Shortens filenames so the header value fits into {@link HttpContentDisposition.Builder#maxHeaderLength(int)}.
+ * <p>
+ * For the default ISO conversion, one pass over the code points sums up what each of them costs in the rendered value:
+ * in the ISO filename (one char, two for an escaped quote) and in the pct-encoded filename*.
+ * The base name gets cut after the last code point that still fits, the extension (e.g. ".pdf") is kept.
+ * The costs are an upper bound (e.g. quotes and trimmed whitespace always count),
+ * so a shortened filename might be a few chars shorter than strictly needed, but never renders too long.
+ * <p>
+ * The value of any other {@link IsoFallback} depends on the filename in ways that cannot be counted per code point
+ * (e.g. transliterations): the cut is found by a binary search over the exact length of the shortened candidates,
+ * calling the fallback once per candidate.
+ * A {@link CachingIsoFallback} gets bypassed for the candidates: they would push the entries that matter out of its cache.
+ */
+final class FilenameTruncator {
+    /**
+     * Longer "extensions" are most probably part of the name, e.g.: "Mr. Smith goes to Washington".
+     */
+    private static final int MAX_EXTENSION_LENGTH = 16;
+
+    /**
+     * {@code ; filename=""}
+     */
+    private static final int ISO_PARAM_LENGTH = "; filename=\"\"".length();
+    /**
+     * {@code ; filename*=UTF-8''}, the language tag not included.
+     */
+    private static final int EXT_PARAM_LENGTH = "; filename*=".length() + RFC8187Encoder.CHARSET_PREFIX.length() + 1;
+    /**
+     * {@code ; filename*} and {@code *=}, the segment number not included.
+     */
+    private static final int CONTINUATION_PARAM_LENGTH = "; filename*".length() + "*=".length();
+
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+    private static final RFC8187Encoder RFC_8187_ENCODER = new RFC8187Encoder();
+
+    private final String filename;
+    private final boolean needsExt;
+    private final int maxSegmentLength;
+    /**
+     * What is left for the filename after all fixed parts.
+     */
+    private final int budget;
+
+    private FilenameTruncator(
+            String filename,
+            String languageTag,
+            int fixedLength,
+            int maxSegmentLength,
+            int maxHeaderLength
+    ) {
+        this.filename = filename;
+        this.needsExt = RFC_2616_CHARACTER_RULES.octetPrefixLength(filename) < filename.length();
+        this.maxSegmentLength = maxSegmentLength;
+
+        int extLength = needsExt ? EXT_PARAM_LENGTH + languageTag.length() : 0;
+        this.budget = maxHeaderLength - fixedLength - ISO_PARAM_LENGTH - extLength;
+    }
+
+    /**
+     * @param parametersLength the length of the additional params.
+     * @return filename itself if it fits.
+     * @throws IllegalStateException if not even an empty filename fits.
+     */
+    static String truncate(
+            Disposition disposition,
+            String filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            int parametersLength,
+            int maxSegmentLength,
+            int maxHeaderLength
+    ) {
+        int extensionStart = extensionStart(filename);
+        String result;
+        if (HeaderRenderer.isDefaultConversion(isoFallback)) {
+            FilenameTruncator truncator = new FilenameTruncator(
+                    filename,
+                    RFC_8187_ENCODER.parseLanguageTag(locale),
+                    disposition.getHeaderAttribute().length() + parametersLength,
+                    maxSegmentLength,
+                    maxHeaderLength
+            );
+
+            result = truncator.truncateBefore(extensionStart);
+            if (result == null && extensionStart < filename.length()) {
+                // not even the extension fits: give it up
+                result = truncator.truncateBefore(filename.length());
+            }
+        } else {
+            ExactLength exactLength = new ExactLength(
+                    disposition, isoFallback, locale, maxSegmentLength, maxHeaderLength - parametersLength);
+
+            result = exactLength.truncateBefore(filename, extensionStart);
+            if (result == null && extensionStart < filename.length()) {
+                result = exactLength.truncateBefore(filename, filename.length());
+            }
+        }
+        if (result == null) {
+            throw new IllegalStateException("maxHeaderLength " + maxHeaderLength + " is too small for any filename");
+        }
+
+        return result;
+    }
+
+    private static int extensionStart(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot <= 0 || filename.length() - dot > MAX_EXTENSION_LENGTH) {
+            return filename.length();
+        }
+
+        return dot;
+    }
+
+    /**
+     * Keeps filename[extensionStart, length) and as much of the base name as fits.
+     *
+     * @return null if not even the kept part fits.
+     */
+    private String truncateBefore(int extensionStart) {
+        int isoLength = 0;
+        int extLength = 0;
+
+        for (int offset = extensionStart; offset < filename.length(); ) {
+            int codePoint = filename.codePointAt(offset);
+            isoLength += isoLength(codePoint);
+            extLength += RFC_8187_ENCODER.encodedLength(codePoint);
+            offset += Character.charCount(codePoint);
+        }
+        if (!fits(isoLength, extLength)) {
+            return null;
+        }
+
+        int cut = 0;
+        while (cut < extensionStart) {
+            int codePoint = filename.codePointAt(cut);
+            isoLength += isoLength(codePoint);
+            extLength += RFC_8187_ENCODER.encodedLength(codePoint);
+            if (!fits(isoLength, extLength)) {
+                break;
+            }
+            cut += Character.charCount(codePoint);
+        }
+
+        if (cut == extensionStart) {
+            // everything fits
+            return filename;
+        }
+
+        return filename.substring(0, cut) + filename.substring(extensionStart);
+    }
+
+    private static int isoLength(int codePoint) {
+        // a surrogate pair becomes one replacement char, quotes get escaped
+        return codePoint == '"' ? 2 : 1;
+    }
+
+    private boolean fits(int isoLength, int extLength) {
+        int total = isoLength;
+        if (needsExt) {
+            total += extLength + continuationLength(extLength);
+        }
+
+        return total <= budget;
+    }
+
+    /**
+     * Upper bound of the additional chars needed if the ext-value gets split into continuations.
+     */
+    private int continuationLength(int extLength) {
+        if (maxSegmentLength == HeaderRenderer.NO_CONTINUATIONS || extLength <= maxSegmentLength) {
+            return 0;
+        }
+
+        // every segment but the last holds more than maxSegmentLength minus the longest encoded code point
+        int minSegmentLength = maxSegmentLength - RFC8187Encoder.MAX_ENCODED_CODE_POINT_LENGTH + 1;
+        int segments = 1 + extLength / minSegmentLength;
+        int segmentParamLength = CONTINUATION_PARAM_LENGTH + Util.decimalLength(segments - 1);
+
+        // the plain filename*= is already part of the budget
+        return segments * segmentParamLength - "; filename*=".length();
+    }
+
+    /**
+     * Measures candidates by {@link HeaderRenderer#encodedLength(Disposition, CharSequence, IsoFallback, Locale, int)}.
+     */
+    private static final class ExactLength {
+        private final Disposition disposition;
+        private final IsoFallback isoFallback;
+        @Nullable
+        private final Locale locale;
+        private final int maxSegmentLength;
+        private final int budget;
+
+        private ExactLength(
+                Disposition disposition,
+                IsoFallback isoFallback,
+                @Nullable Locale locale,
+                int maxSegmentLength,
+                int budget
+        ) {
+            this.disposition = disposition;
+            this.isoFallback = isoFallback instanceof CachingIsoFallback
+                    ? ((CachingIsoFallback) isoFallback).getDelegate()
+                    : isoFallback;
+            this.locale = locale;
+            this.maxSegmentLength = maxSegmentLength;
+            this.budget = budget;
+        }
+
+        /**
+         * Keeps filename[extensionStart, length) and the longest base name (cut between code points) that fits.
+         * Assumes longer candidates do not render shorter: only measured candidates get returned, though.
+         *
+         * @return null if not even the kept part fits.
+         */
+        @Nullable
+        private String truncateBefore(String filename, int extensionStart) {
+            String extension = filename.substring(extensionStart);
+            if (!fits(extension)) {
+                return null;
+            }
+
+            // cut offsets between code points, the 1st (0) is known to fit
+            int[] cuts = new int[filename.codePointCount(0, extensionStart) + 1];
+            for (int i = 1; i < cuts.length; i++) {
+                cuts[i] = cuts[i - 1] + Character.charCount(filename.codePointAt(cuts[i - 1]));
+            }
+
+            int low = 0;
+            int high = cuts.length - 1;
+            String result = extension;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                String candidate = filename.substring(0, cuts[mid]) + extension;
+                if (fits(candidate)) {
+                    low = mid;
+                    result = candidate;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return result;
+        }
+
+        private boolean fits(String candidate) {
+            return HeaderRenderer.encodedLength(disposition, candidate, isoFallback, locale, maxSegmentLength) <= budget;
+        }
+    }
+}
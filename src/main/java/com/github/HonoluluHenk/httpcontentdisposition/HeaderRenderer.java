@@ -0,0 +1,675 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Util;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.DefaultISO88591Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.ISO88591Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.SegmentBoundaries;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Renders the header value of {@link HttpContentDisposition} in a single pass over the filename.
+ * <p>
+ * Every code point gets classified once:
+ * token char or not (i.e.: does the ISO value need quoting)
+ * and quote or not (i.e.: does it need escaping inside the quoted-string).
+ * Whether the filename* parameter is needed at all is decided upfront by a fast scan for chars outside Latin-1,
+ * the filename then gets pct-encoded in one go.
+ * <p>
+ * The single pass only applies to the default {@link EncodeIsoFallback}:
+ * any other {@link IsoFallback} produces an independent value which gets its own pass.
+ * <p>
+ * A renderer is mutable and keeps its scratch buffers between calls:
+ * reuse it for many headers but confine it to one thread, e.g.:
+ * <pre>{@code
+ * private static final ThreadLocal<HeaderRenderer> RENDERER = ThreadLocal.withInitial(HeaderRenderer::new);
+ *
+ * String value = RENDERER.get().render(Disposition.ATTACHMENT, filename, isoFallback, locale);
+ * }</pre>
+ * The output is the same as {@link HttpContentDisposition#headerValue()} but without the builder and instance.
+ * <p>
+ * Opt-in: {@link #HeaderRenderer(int)} splits long ext-values into RFC 2231 continuations
+ * ({@code filename*0*=...; filename*1*=...}) for intermediaries that cannot handle long parameters.
+ * <p>
+ * {@link #render(Disposition, CharSequence, IsoFallback, Locale, Appendable)} streams into any {@link Appendable}
+ * (e.g. the {@link java.io.Writer} of a response) without touching the scratch buffers.
+ */
+@NotThreadSafe
+public final class HeaderRenderer {
+    private static final RFC8187Encoder RFC_8187_ENCODER = new RFC8187Encoder();
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+    private static final ISO88591Encoder ISO_88591_ENCODER = new DefaultISO88591Encoder();
+    /**
+     * The ext parameter up to the language tag, appended in one bulk copy just as the disposition prefixes.
+     */
+    private static final String EXT_PARAM_NAME = "; filename*=";
+    private static final String EXT_PREFIX = EXT_PARAM_NAME + RFC8187Encoder.CHARSET_PREFIX;
+    private static final String EXT_PREFIX_WITHOUT_LANGUAGE = EXT_PREFIX + '\'';
+    /**
+     * Followed by the segment number and {@code *=}.
+     */
+    private static final String CONTINUATION_PREFIX = "; filename*";
+
+    /**
+     * Default: render the ext-value as one parameter, however long it is.
+     */
+    public static final int NO_CONTINUATIONS = 0;
+
+    /**
+     * Same replacement the JDK uses for characters that cannot be encoded in ISO-8859-1.
+     */
+    private static final char ISO_REPLACEMENT = '?';
+
+    /**
+     * Scratch buffers grown beyond this get dropped by {@link #reset()}.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    /**
+     * Scratch buffer for {@link #render(Disposition, CharSequence, IsoFallback, Locale)}, created on first use.
+     */
+    @Nullable
+    private StringBuilder value = null;
+
+    /**
+     * The pct-encoded filename, only gets filled if there is a code point outside Latin-1.
+     */
+    @Nullable
+    private StringBuilder ext = null;
+    private boolean needsExt = false;
+
+    /**
+     * Batches usually share the locale: remember the language tag of the last one.
+     */
+    @Nullable
+    private Locale languageTagLocale = null;
+    private String languageTag = "";
+
+    private final int maxSegmentLength;
+    /**
+     * Where to split ext into continuations, only exists if {@link #maxSegmentLength} is set.
+     */
+    @Nullable
+    private final SegmentBoundaries segmentBoundaries;
+
+    public HeaderRenderer() {
+        this(NO_CONTINUATIONS);
+    }
+
+    /**
+     * @param maxSegmentLength ext-values longer than this get split into RFC 2231 continuations of at most this many
+     *                         pct-encoded chars each (the charset/language prefix of the first one not counted).
+     *                         Either {@link #NO_CONTINUATIONS} or at least
+     *                         {@link RFC8187Encoder#MAX_ENCODED_CODE_POINT_LENGTH}.
+     */
+    public HeaderRenderer(int maxSegmentLength) {
+        this.maxSegmentLength = checkSegmentLength(maxSegmentLength);
+        this.segmentBoundaries = maxSegmentLength == NO_CONTINUATIONS ? null : new SegmentBoundaries();
+    }
+
+    static int checkSegmentLength(int maxSegmentLength) {
+        if (maxSegmentLength != NO_CONTINUATIONS && maxSegmentLength < RFC8187Encoder.MAX_ENCODED_CODE_POINT_LENGTH) {
+            throw new IllegalArgumentException("maxSegmentLength must be " + NO_CONTINUATIONS + " or at least "
+                    + RFC8187Encoder.MAX_ENCODED_CODE_POINT_LENGTH + " but was: " + maxSegmentLength);
+        }
+
+        return maxSegmentLength;
+    }
+
+    /**
+     * Renders the header value, same as {@link HttpContentDisposition#headerValue()}.
+     */
+    public String render(
+            Disposition disposition,
+            CharSequence filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale
+    ) {
+        requireNonNull(filename, "filename must be given");
+
+        StringBuilder out = value;
+        if (out == null) {
+            out = new StringBuilder(64 + filename.length());
+            value = out;
+        } else {
+            out.setLength(0);
+        }
+        render(disposition, filename, isoFallback, locale, out);
+
+        return out.toString();
+    }
+
+    /**
+     * Drops all state, including scratch buffers that grew unusually large (e.g. after a very long filename).
+     * <p>
+     * Not needed between render calls: useful before returning a renderer to a pool.
+     */
+    public void reset() {
+        if (value != null && value.capacity() > MAX_RETAINED_CAPACITY) {
+            value = null;
+        }
+        if (ext != null && ext.capacity() > MAX_RETAINED_CAPACITY) {
+            ext = null;
+        }
+        needsExt = false;
+        if (segmentBoundaries != null) {
+            segmentBoundaries.clear();
+        }
+        languageTagLocale = null;
+        languageTag = "";
+    }
+
+    /**
+     * Appends the header value to out.
+     */
+    public void render(
+            Disposition disposition,
+            CharSequence filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            StringBuilder out
+    ) {
+        requireNonNull(disposition, "disposition must be given");
+        requireNonNull(filename, "filename must be given");
+        requireNonNull(isoFallback, "isoFallback must be given");
+        requireNonNull(out, "out must be given");
+
+        needsExt = false;
+        if (ext != null) {
+            ext.setLength(0);
+        }
+        if (segmentBoundaries != null) {
+            segmentBoundaries.clear();
+        }
+
+        out.ensureCapacity(out.length() + 64 + filename.length());
+
+        if (isDefaultConversion(isoFallback)) {
+            renderConvertedIsoAndExt(disposition, filename, out);
+        } else {
+            renderIso(disposition, filename, isoFallback, out);
+            if (RFC_2616_CHARACTER_RULES.octetPrefixLength(filename) < filename.length()) {
+                renderExt(filename);
+            }
+        }
+
+        if (needsExt) {
+            assert ext != null;
+            String tag = languageTag(locale);
+            if (segmentBoundaries != null && segmentBoundaries.size() > 0) {
+                appendContinuations(tag, ext, segmentBoundaries, out);
+                return;
+            }
+            if (tag.isEmpty()) {
+                out.append(EXT_PREFIX_WITHOUT_LANGUAGE);
+            } else {
+                out.append(EXT_PREFIX).append(tag).append('\'');
+            }
+            out.append(ext);
+        }
+    }
+
+    /**
+     * Same as {@link #render(Disposition, CharSequence, IsoFallback, Locale, StringBuilder)} but streams the header value
+     * straight into out.
+     */
+    public void render(
+            Disposition disposition,
+            CharSequence filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            Appendable out
+    ) throws IOException {
+        if (out instanceof StringBuilder) {
+            render(disposition, filename, isoFallback, locale, (StringBuilder) out);
+            return;
+        }
+
+        requireNonNull(disposition, "disposition must be given");
+        requireNonNull(filename, "filename must be given");
+        requireNonNull(isoFallback, "isoFallback must be given");
+        requireNonNull(out, "out must be given");
+
+        renderTo(disposition, filename, isoFallback, locale, maxSegmentLength, out);
+    }
+
+    /**
+     * {@code ; filename*0*=UTF-8'tag'<segment 0>; filename*1*=<segment 1>...}
+     */
+    private void appendContinuations(
+            String tag,
+            StringBuilder ext,
+            SegmentBoundaries segmentBoundaries,
+            StringBuilder out
+    ) {
+        int segmentCount = segmentBoundaries.size() + 1;
+        int start = 0;
+
+        for (int i = 0; i < segmentCount; i++) {
+            int end = i < segmentCount - 1 ? segmentBoundaries.get(i) : ext.length();
+
+            out.append(CONTINUATION_PREFIX).append(i).append("*=");
+            if (i == 0) {
+                out.append(RFC8187Encoder.CHARSET_PREFIX).append(tag).append('\'');
+            }
+            out.append(ext, start, end);
+
+            start = end;
+        }
+    }
+
+    /**
+     * The exact number of chars {@link #render(Disposition, CharSequence, IsoFallback, Locale, StringBuilder)} appends,
+     * computed in one pass over the filename without rendering.
+     * <p>
+     * Allocation-free for the default {@link EncodeIsoFallback}, any other gets called for its value.
+     */
+    static int encodedLength(
+            Disposition disposition,
+            CharSequence filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            int maxSegmentLength
+    ) {
+        int length = filename.length();
+        boolean isDefaultConversion = isDefaultConversion(isoFallback);
+
+        if (isDefaultConversion && length > 0 && RFC_2616_CHARACTER_RULES.tokenPrefixLength(filename) == length) {
+            return disposition.getTokenFilenamePrefix().length() + length;
+        }
+
+        // same as String.trim()
+        int isoStart = 0;
+        int isoEnd = length;
+        while (isoStart < isoEnd && filename.charAt(isoStart) <= ' ') {
+            isoStart++;
+        }
+        while (isoEnd > isoStart && filename.charAt(isoEnd - 1) <= ' ') {
+            isoEnd--;
+        }
+
+        if (isDefaultConversion && RFC_2616_CHARACTER_RULES.octetPrefixLength(filename) == length) {
+            // Latin-1 only: no ext-value, every char stands for itself
+            return latin1IsoParamLength(disposition, filename, isoStart, isoEnd);
+        }
+
+        int isoLength = 0;
+        boolean isToken = isoStart < isoEnd;
+        boolean needsExt = false;
+        int extLength = 0;
+        int segmentCount = 1;
+        int segmentLength = 0;
+
+        for (int offset = 0; offset < length; ) {
+            int codePoint = Character.codePointAt(filename, offset);
+            boolean isLatin1 = codePoint <= 0xFF;
+            needsExt |= !isLatin1;
+
+            if (isDefaultConversion && isoStart <= offset && offset < isoEnd) {
+                char isoChar = isLatin1 ? (char) codePoint : ISO_REPLACEMENT;
+                isToken &= RFC_2616_CHARACTER_RULES.isTokenChar(isoChar);
+                isoLength += isoChar == '"' ? 2 : 1;
+            }
+
+            // same segmentation as RFC8187Encoder: a code point overflowing the segment starts the next one
+            int encodedLength = RFC_8187_ENCODER.encodedLength(codePoint);
+            extLength += encodedLength;
+            segmentLength += encodedLength;
+            if (maxSegmentLength != NO_CONTINUATIONS && segmentLength > maxSegmentLength) {
+                segmentCount++;
+                segmentLength = encodedLength;
+            }
+
+            offset += Character.charCount(codePoint);
+        }
+
+        int result = isDefaultConversion
+                ? isoParamLength(disposition, isoLength, isToken)
+                : isoParamLength(disposition, filename, isoFallback);
+
+        if (needsExt) {
+            result += RFC8187Encoder.CHARSET_PREFIX.length() + RFC_8187_ENCODER.parseLanguageTag(locale).length() + 1;
+            result += extLength;
+            if (segmentCount == 1) {
+                result += EXT_PARAM_NAME.length();
+            } else {
+                for (int i = 0; i < segmentCount; i++) {
+                    result += CONTINUATION_PREFIX.length() + Util.decimalLength(i) + "*=".length();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The disposition and the ISO param: the opening quote is part of the prefix, tokens do without.
+     */
+    private static int isoParamLength(Disposition disposition, int isoLength, boolean isToken) {
+        return disposition.getQuotedFilenamePrefix().length() + isoLength + (isToken ? -1 : 1);
+    }
+
+    private static int latin1IsoParamLength(Disposition disposition, CharSequence filename, int isoStart, int isoEnd) {
+        int isoLength = isoEnd - isoStart;
+        boolean isToken = isoStart < isoEnd;
+        for (int i = isoStart; i < isoEnd; i++) {
+            char c = filename.charAt(i);
+            isToken &= RFC_2616_CHARACTER_RULES.isTokenChar(c);
+            if (c == '"') {
+                isoLength++;
+            }
+        }
+
+        return isoParamLength(disposition, isoLength, isToken);
+    }
+
+    private static int isoParamLength(Disposition disposition, CharSequence filename, IsoFallback isoFallback) {
+        String isoFilename = isoFallback.fallback(filename.toString());
+        if (isoFilename == null) {
+            return disposition.getHeaderAttribute().length();
+        }
+
+        String actual = isoFilename;
+        if (isoFallback.needsEncoding()) {
+            actual = ISO_88591_ENCODER.encode(isoFilename);
+        }
+
+        int isoLength = 0;
+        boolean isToken = !actual.isEmpty();
+        for (int i = 0; i < actual.length(); i++) {
+            char c = actual.charAt(i);
+            isToken &= RFC_2616_CHARACTER_RULES.isTokenChar(c);
+            isoLength += c == '"' ? 2 : 1;
+        }
+
+        return isoParamLength(disposition, isoLength, isToken);
+    }
+
+    private String languageTag(@Nullable Locale locale) {
+        if (locale != languageTagLocale) {
+            languageTag = RFC_8187_ENCODER.parseLanguageTag(locale);
+            languageTagLocale = locale;
+        }
+
+        return languageTag;
+    }
+
+    static boolean isDefaultConversion(IsoFallback isoFallback) {
+        // exact class: subclasses might override fallback()
+        return isoFallback.getClass() == EncodeIsoFallback.class
+                && ((EncodeIsoFallback) isoFallback).isDefaultConversion();
+    }
+
+    /**
+     * The single pass for {@link EncodeIsoFallback}: ISO value and ext value both derive from the filename.
+     */
+    private void renderConvertedIsoAndExt(Disposition disposition, CharSequence filename, StringBuilder out) {
+        int length = filename.length();
+
+        // the common case, e.g. "report-2026-10.pdf": nothing to trim, quote or encode
+        int tokenLength = RFC_2616_CHARACTER_RULES.tokenPrefixLength(filename);
+        if (tokenLength == length && length > 0) {
+            out.append(disposition.getTokenFilenamePrefix()).append(filename);
+            return;
+        }
+
+        // same as String.trim()
+        int isoStart = 0;
+        int isoEnd = length;
+        while (isoStart < isoEnd && filename.charAt(isoStart) <= ' ') {
+            isoStart++;
+        }
+        while (isoEnd > isoStart && filename.charAt(isoEnd - 1) <= ' ') {
+            isoEnd--;
+        }
+
+        if (RFC_2616_CHARACTER_RULES.octetPrefixLength(filename) < length) {
+            renderExt(filename);
+        }
+
+        int quotePos = startIsoParam(disposition, out);
+        boolean isToken = isoStart < isoEnd;
+
+        // a token prefix is Latin-1, not trimmed and needs no escaping: copy it in bulk
+        out.append(filename, 0, tokenLength);
+
+        for (int offset = tokenLength; offset < length; ) {
+            int codePoint = Character.codePointAt(filename, offset);
+            boolean isLatin1 = codePoint <= 0xFF;
+
+            if (isoStart <= offset && offset < isoEnd) {
+                // a surrogate pair is replaced by one replacement char, just as the JDK does
+                char isoChar = isLatin1 ? (char) codePoint : ISO_REPLACEMENT;
+                isToken &= RFC_2616_CHARACTER_RULES.isTokenChar(isoChar);
+                appendQuotedStringChar(isoChar, out);
+            }
+
+            offset += Character.charCount(codePoint);
+        }
+
+        endIsoParam(out, quotePos, isToken);
+    }
+
+    private void renderIso(Disposition disposition, CharSequence filename, IsoFallback isoFallback, StringBuilder out) {
+        String isoFilename = isoFallback.fallback(filename.toString());
+        if (isoFilename == null) {
+            out.append(disposition.getHeaderAttribute());
+            return;
+        }
+
+        String actual = isoFilename;
+        if (isoFallback.needsEncoding()) {
+            actual = ISO_88591_ENCODER.encode(isoFilename);
+        }
+
+        int quotePos = startIsoParam(disposition, out);
+        int length = actual.length();
+        boolean isToken = length > 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = actual.charAt(i);
+            // chars outside US-ASCII (including surrogates) are never token chars
+            isToken &= RFC_2616_CHARACTER_RULES.isTokenChar(c);
+            appendQuotedStringChar(c, out);
+        }
+
+        endIsoParam(out, quotePos, isToken);
+    }
+
+    /**
+     * Writes the disposition, the parameter name and - optimistically - the opening quote.
+     *
+     * @return position of the opening quote
+     */
+    private int startIsoParam(Disposition disposition, StringBuilder out) {
+        out.append(disposition.getQuotedFilenamePrefix());
+
+        return out.length() - 1;
+    }
+
+    private void endIsoParam(StringBuilder out, int quotePos, boolean isToken) {
+        if (isToken) {
+            // a token contains no quotes, so nothing got escaped
+            out.deleteCharAt(quotePos);
+        } else {
+            out.append('"');
+        }
+    }
+
+    private void appendQuotedStringChar(char c, StringBuilder out) {
+        if (c == '"') {
+            out.append('\\');
+        }
+        out.append(c);
+    }
+
+    /**
+     * pct-encodes the whole filename in one go,
+     * recording the continuation boundaries in the same pass if needed.
+     */
+    private void renderExt(CharSequence filename) {
+        needsExt = true;
+        if (ext == null) {
+            ext = new StringBuilder(filename.length() * 3);
+        }
+
+        if (segmentBoundaries == null) {
+            RFC_8187_ENCODER.pctEncode(filename, ext);
+        } else {
+            RFC_8187_ENCODER.pctEncode(filename, ext, maxSegmentLength, segmentBoundaries);
+        }
+    }
+
+    /**
+     * Streams the header value into out without any scratch buffer (nor renderer instance).
+     * <p>
+     * Nothing can be taken back once written: whether the ISO value is a token and whether the ext-value needs
+     * continuations get decided upfront, i.e. up to two passes over the filename instead of one.
+     */
+    static void renderTo(
+            Disposition disposition,
+            CharSequence filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            int maxSegmentLength,
+            Appendable out
+    ) throws IOException {
+        int length = filename.length();
+
+        if (isDefaultConversion(isoFallback)) {
+            if (length > 0 && RFC_2616_CHARACTER_RULES.tokenPrefixLength(filename) == length) {
+                out.append(disposition.getTokenFilenamePrefix()).append(filename);
+                return;
+            }
+            streamConvertedIso(disposition, filename, out);
+        } else {
+            streamIso(disposition, filename, isoFallback, out);
+        }
+
+        if (RFC_2616_CHARACTER_RULES.octetPrefixLength(filename) < length) {
+            streamExt(filename, locale, maxSegmentLength, out);
+        }
+    }
+
+    private static void streamConvertedIso(Disposition disposition, CharSequence filename, Appendable out)
+            throws IOException {
+        int length = filename.length();
+
+        // same as String.trim()
+        int isoStart = 0;
+        int isoEnd = length;
+        while (isoStart < isoEnd && filename.charAt(isoStart) <= ' ') {
+            isoStart++;
+        }
+        while (isoEnd > isoStart && filename.charAt(isoEnd - 1) <= ' ') {
+            isoEnd--;
+        }
+
+        // chars outside US-ASCII (including surrogates) are never token chars, just as their replacement
+        boolean isToken = isoStart < isoEnd;
+        for (int i = isoStart; isToken && i < isoEnd; i++) {
+            isToken = RFC_2616_CHARACTER_RULES.isTokenChar(filename.charAt(i));
+        }
+
+        out.append(isToken ? disposition.getTokenFilenamePrefix() : disposition.getQuotedFilenamePrefix());
+        // runs of Latin-1 chars other than the quote go out unchanged: append them in bulk
+        int runStart = isoStart;
+        for (int i = isoStart; i < isoEnd; i++) {
+            char c = filename.charAt(i);
+            if (c <= 0xFF && c != '"') {
+                continue;
+            }
+
+            out.append(filename, runStart, i);
+            if (c == '"') {
+                out.append("\\\"");
+            } else {
+                // a surrogate pair is replaced by one replacement char, just as the JDK does
+                out.append(ISO_REPLACEMENT);
+                if (Character.isHighSurrogate(c) && i + 1 < isoEnd && Character.isLowSurrogate(filename.charAt(i + 1))) {
+                    i++;
+                }
+            }
+            runStart = i + 1;
+        }
+        out.append(filename, runStart, isoEnd);
+        if (!isToken) {
+            out.append('"');
+        }
+    }
+
+    private static void streamIso(Disposition disposition, CharSequence filename, IsoFallback isoFallback, Appendable out)
+            throws IOException {
+        String isoFilename = isoFallback.fallback(filename.toString());
+        if (isoFilename == null) {
+            out.append(disposition.getHeaderAttribute());
+            return;
+        }
+
+        String actual = isoFilename;
+        if (isoFallback.needsEncoding()) {
+            actual = ISO_88591_ENCODER.encode(isoFilename);
+        }
+
+        if (RFC_2616_CHARACTER_RULES.isToken(actual)) {
+            out.append(disposition.getTokenFilenamePrefix()).append(actual);
+            return;
+        }
+
+        out.append(disposition.getQuotedFilenamePrefix());
+        int runStart = 0;
+        for (int quote = actual.indexOf('"'); quote >= 0; quote = actual.indexOf('"', runStart)) {
+            out.append(actual, runStart, quote).append("\\\"");
+            runStart = quote + 1;
+        }
+        out.append(actual, runStart, actual.length()).append('"');
+    }
+
+    /**
+     * Continuations are only needed if the whole ext-value does not fit into one segment: measured before writing.
+     */
+    private static void streamExt(CharSequence filename, @Nullable Locale locale, int maxSegmentLength, Appendable out)
+            throws IOException {
+        if (maxSegmentLength == NO_CONTINUATIONS || RFC_8187_ENCODER.encodedLength(filename) <= maxSegmentLength) {
+            out.append(EXT_PARAM_NAME);
+            RFC_8187_ENCODER.encodeExtValueTo(filename, locale, out);
+            return;
+        }
+
+        int segment = 0;
+        int segmentLength = 0;
+        appendContinuationName(segment, out);
+        out.append(RFC8187Encoder.CHARSET_PREFIX).append(RFC_8187_ENCODER.parseLanguageTag(locale)).append('\'');
+
+        int length = filename.length();
+        for (int offset = 0; offset < length; ) {
+            int codePoint = Character.codePointAt(filename, offset);
+
+            // same segmentation as RFC8187Encoder: a code point overflowing the segment starts the next one
+            int encodedLength = RFC_8187_ENCODER.encodedLength(codePoint);
+            segmentLength += encodedLength;
+            if (segmentLength > maxSegmentLength) {
+                appendContinuationName(++segment, out);
+                segmentLength = encodedLength;
+            }
+            RFC_8187_ENCODER.pctEncodeTo(codePoint, out);
+
+            offset += Character.charCount(codePoint);
+        }
+    }
+
+    private static void appendContinuationName(int segment, Appendable out) throws IOException {
+        out.append(CONTINUATION_PREFIX);
+        Util.appendDecimal(segment, out);
+        out.append("*=");
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Util;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2231CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An additional parameter of the header (besides the filename), e.g.: {@code size=12345},
+ * see: {@link HttpContentDisposition.Builder#parameter(HeaderValue)}.
+ * <p>
+ * The name gets validated and its {@code "; name="} prefix precomputed once on creation:
+ * rendering only appends the prefix and the value.
+ * Numeric values are appended digit by digit, without an intermediate String.
+ * <p>
+ * There is no ext-value for additional parameters: values are restricted to ISO-8859-1 (without control characters)
+ * and get written as token if possible, as quoted-string otherwise.
+ */
+@Immutable
+public final class HeaderValue {
+    /**
+     * RFC 2183: the approximate size of the file in octets.
+     */
+    public static final String SIZE = "size";
+    /**
+     * RFC 2183
+     */
+    public static final String CREATION_DATE = "creation-date";
+    /**
+     * RFC 2183
+     */
+    public static final String MODIFICATION_DATE = "modification-date";
+    /**
+     * RFC 2183
+     */
+    public static final String READ_DATE = "read-date";
+    /**
+     * RFC 7578: the form field name of a multipart/form-data part.
+     */
+    public static final String NAME = "name";
+
+    private static final RFC2231CharacterRules RFC_2231_CHARACTER_RULES = RFC2231CharacterRules.getInstance();
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+
+    /**
+     * Rendered by {@link HttpContentDisposition} itself.
+     */
+    private static final String RESERVED_NAME = "filename";
+
+    /**
+     * RFC 822 date-time (as required by RFC 2183), always in GMT.
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final String name;
+    /**
+     * {@code "; " name "="}
+     */
+    private final String prefix;
+    /**
+     * The value as rendered (token or quoted-string), null for numeric values.
+     */
+    @Nullable
+    private final String value;
+    private final long number;
+
+    private HeaderValue(String name, @Nullable String value, long number) {
+        this.name = name;
+        this.prefix = "; " + name + '=';
+        this.value = value;
+        this.number = number;
+    }
+
+    /**
+     * @param value any ISO-8859-1 text without control characters (horizontal tab excepted), gets quoted if needed.
+     * @throws IllegalArgumentException if name or value are invalid.
+     */
+    public static HeaderValue of(String name, String value) {
+        requireNonNull(value, "value must be given");
+
+        return new HeaderValue(validName(name), renderValue(value), 0);
+    }
+
+    /**
+     * @param value a non-negative number, e.g. for {@link #SIZE}.
+     * @throws IllegalArgumentException if name or value are invalid.
+     */
+    public static HeaderValue of(String name, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Parameter " + name + " must not be negative but was: " + value);
+        }
+
+        return new HeaderValue(validName(name), null, value);
+    }
+
+    /**
+     * @param value rendered as RFC 822 date-time (in GMT), e.g. for {@link #MODIFICATION_DATE}.
+     * @throws IllegalArgumentException if name is invalid.
+     */
+    public static HeaderValue of(String name, Instant value) {
+        requireNonNull(value, "value must be given");
+
+        String dateTime = DATE_TIME_FORMATTER.format(value.atOffset(ZoneOffset.UTC));
+
+        return new HeaderValue(validName(name), '"' + dateTime + '"', 0);
+    }
+
+    private static String validName(String name) {
+        requireNonNull(name, "name must be given");
+
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Parameter name must not be empty");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!RFC_2231_CHARACTER_RULES.isAttributeChar(name.charAt(i))) {
+                throw new IllegalArgumentException("Not a valid parameter name: " + name);
+            }
+        }
+        if (name.equalsIgnoreCase(RESERVED_NAME)) {
+            throw new IllegalArgumentException("Use the filename of the builder instead of parameter: " + name);
+        }
+
+        return name;
+    }
+
+    private static String renderValue(String value) {
+        if (RFC_2616_CHARACTER_RULES.isToken(value)) {
+            return value;
+        }
+
+        StringBuilder result = new StringBuilder(value.length() + 2);
+        result.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0xFF || c == 0x7F || (c < ' ' && c != '\t')) {
+                // most notably CR/LF: must never end up in a header
+                throw new IllegalArgumentException("Not a valid parameter value: " + value);
+            }
+            if (c == '"' || c == '\\') {
+                result.append('\\');
+            }
+            result.append(c);
+        }
+        result.append('"');
+
+        return result.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The value as it appears in the header, i.e.: including quotes and escapes of a quoted-string.
+     */
+    public String getValue() {
+        return value != null ? value : Long.toString(number);
+    }
+
+    /**
+     * Parameter names are case-insensitive.
+     */
+    boolean hasName(String other) {
+        return name.equalsIgnoreCase(other);
+    }
+
+    /**
+     * The number of chars {@link #appendTo(StringBuilder)} appends.
+     */
+    int length() {
+        return prefix.length() + (value != null ? value.length() : Util.decimalLength(number));
+    }
+
+    /**
+     * Appends {@code "; " name "=" value}.
+     */
+    void appendTo(StringBuilder out) {
+        out.append(prefix);
+        if (value != null) {
+            out.append(value);
+        } else {
+            // no garbage: StringBuilder writes the digits directly
+            out.append(number);
+        }
+    }
+
+    /**
+     * Same as {@link #appendTo(StringBuilder)} for any {@link Appendable}.
+     */
+    void appendTo(Appendable out) throws IOException {
+        out.append(prefix);
+        if (value != null) {
+            out.append(value);
+        } else {
+            Util.appendDecimal(number, out);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HeaderValue other = (HeaderValue) o;
+        return number == other.number
+                && name.equals(other.name)
+                && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + Objects.hashCode(value);
+        result = 31 * result + Long.hashCode(number);
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name + '=' + getValue();
+    }
+}
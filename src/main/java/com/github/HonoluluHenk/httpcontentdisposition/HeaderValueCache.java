@@ -0,0 +1,157 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.StripedLruCache;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Opt-in memoization of rendered header values, see: {@link HttpContentDisposition.Builder#cache(HeaderValueCache)}.
+ * <p>
+ * Useful if the same filenames get served over and over again.
+ * Values are keyed by all properties of {@link HttpContentDisposition}
+ * (disposition, filename, {@link IsoFallback}, locale, parameters, ...).
+ * Only {@link IsoFallback#isCacheable() cacheable} fallbacks are cached, all others get rendered every time.
+ * <p>
+ * The cache is bounded (least-recently-used eviction) and meant to be shared by all threads.
+ */
+@ThreadSafe
+public final class HeaderValueCache {
+    private final StripedLruCache<Key, String> cache;
+
+    /**
+     * @param maximumSize the maximum number of cached header values.
+     */
+    public HeaderValueCache(int maximumSize) {
+        this.cache = new StripedLruCache<>(maximumSize);
+    }
+
+    String headerValue(HttpContentDisposition header) {
+        Key key = new Key(
+                header.getDisposition(),
+                header.getFilename(),
+                header.getIsoFallback(),
+                header.getLocale(),
+                header.getParameters(),
+                header.getMaxSegmentLength(),
+                header.getMaxHeaderLength()
+        );
+
+        String cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String result = header.render();
+        cache.put(key, result);
+
+        return result;
+    }
+
+    public long getHitCount() {
+        return cache.hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * hits / (hits + misses), 0 if the cache was never used.
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * The number of currently cached header values.
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getMaximumSize() {
+        return cache.maximumSize();
+    }
+
+    /**
+     * Drops all cached header values (the hit/miss counters are kept).
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "HeaderValueCache[size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+    }
+
+    private static final class Key {
+        private final Disposition disposition;
+        private final String filename;
+        private final IsoFallback isoFallback;
+        @Nullable
+        private final Locale locale;
+        private final List<HeaderValue> parameters;
+        private final int maxSegmentLength;
+        private final int maxHeaderLength;
+
+        Key(
+                Disposition disposition,
+                String filename,
+                IsoFallback isoFallback,
+                @Nullable Locale locale,
+                List<HeaderValue> parameters,
+                int maxSegmentLength,
+                int maxHeaderLength
+        ) {
+            this.disposition = requireNonNull(disposition);
+            this.filename = requireNonNull(filename);
+            this.isoFallback = requireNonNull(isoFallback);
+            this.locale = locale;
+            this.parameters = requireNonNull(parameters);
+            this.maxSegmentLength = maxSegmentLength;
+            this.maxHeaderLength = maxHeaderLength;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return disposition == other.disposition
+                    && filename.equals(other.filename)
+                    && isoFallback.equals(other.isoFallback)
+                    && Objects.equals(locale, other.locale)
+                    && parameters.equals(other.parameters)
+                    && maxSegmentLength == other.maxSegmentLength
+                    && maxHeaderLength == other.maxHeaderLength;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = disposition.hashCode();
+            result = 31 * result + filename.hashCode();
+            result = 31 * result + isoFallback.hashCode();
+            result = 31 * result + Objects.hashCode(locale);
+            result = 31 * result + parameters.hashCode();
+            result = 31 * result + maxSegmentLength;
+            result = 31 * result + maxHeaderLength;
+
+            return result;
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.github.HonoluluHenk.httpcontentdisposition;
 
-import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.*;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Latin1ByteSink;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Latin1Bytes;
 import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
 import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
 import com.github.HonoluluHenk.httpcontentdisposition.isofallback.OverrideIsoFallback;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
-import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -20,6 +29,9 @@ import static java.util.Objects.requireNonNull;
  * The difference between this implementation and the RFC is: the RFC requires either the old ISO-8859-1 attribute
  * <b>or</b> the encoded extended attribute.
  * This library provides - for much better compatibility with broken/old clients - both.
+ * <p>
+ * Additional parameters (e.g. the RFC 2183 {@code size} or {@code modification-date}) follow the filename,
+ * see: {@link Builder#parameter(HeaderValue)}.
  */
 public class HttpContentDisposition {
     /**
@@ -27,27 +39,55 @@ public class HttpContentDisposition {
      */
     public static final String CONTENT_DISPOSITION = "Content-Disposition";
 
-    private static final RFC8187Encoder rfc8187Encoder = new RFC8187Encoder();
-    private static final RFC2616CharacterRules rfc2616CharacterRules = new RFC2616CharacterRules();
-    private static final ISO88591Encoder ISO_88591_ENCODER = new DefaultISO88591Encoder();
-    private static final String FILENAME_PARAM_NAME = "filename";
+    /**
+     * Default: never shorten the filename.
+     */
+    public static final int NO_MAX_HEADER_LENGTH = 0;
+
+    private static final String HEADER_LINE_PREFIX = CONTENT_DISPOSITION + ": ";
+
+    /**
+     * Instances are shared between threads: {@link #writeTo(ByteBuffer)} borrows a sink of the current thread instead.
+     */
+    private static final ThreadLocal<Latin1ByteSink> BYTE_SINKS = ThreadLocal.withInitial(Latin1ByteSink::new);
 
     private final Disposition disposition;
     private final String filename;
     private final IsoFallback isoFallback;
     @Nullable
     private final Locale locale;
+    @Nullable
+    private final HeaderValueCache cache;
+    private final List<HeaderValue> parameters;
+    private final int maxSegmentLength;
+    private final int maxHeaderLength;
 
     HttpContentDisposition(
             Disposition disposition,
             String filename,
             IsoFallback isoFallback,
-            @Nullable Locale locale
+            @Nullable Locale locale,
+            @Nullable HeaderValueCache cache,
+            List<HeaderValue> parameters,
+            int maxSegmentLength,
+            int maxHeaderLength
     ) {
         this.disposition = requireNonNull(disposition);
         this.filename = requireNonNull(filename);
         this.isoFallback = requireNonNull(isoFallback);
         this.locale = locale;
+        this.cache = cache;
+        this.parameters = requireNonNull(parameters);
+        this.maxSegmentLength = HeaderRenderer.checkSegmentLength(maxSegmentLength);
+        this.maxHeaderLength = checkMaxHeaderLength(maxHeaderLength);
+    }
+
+    private static int checkMaxHeaderLength(int maxHeaderLength) {
+        if (maxHeaderLength < 0) {
+            throw new IllegalArgumentException("maxHeaderLength must not be negative but was: " + maxHeaderLength);
+        }
+
+        return maxHeaderLength;
     }
 
     /**
@@ -61,100 +101,278 @@ public class HttpContentDisposition {
         requireNonNull(disposition, "disposition must be given");
         requireNonNull(filename, "filename must be given");
 
-        if (valueNeedsEncoding()) {
-            String result = formatBothIsoAndEncoded();
+        if (cache != null && isoFallback.isCacheable()) {
+            return cache.headerValue(this);
+        }
 
-            return result;
+        String result = render();
 
-        } else {
+        return result;
+    }
 
-            String result = formatIsoOnly();
+    /**
+     * Same as {@link #headerValue()} but appends the value to out.
+     * <p>
+     * Useful if the caller already holds a header buffer: no intermediate Strings are created
+     * (unless a {@link HeaderValueCache} is configured: then the cached String gets appended).
+     */
+    public void headerValue(StringBuilder out) {
+        requireNonNull(disposition, "disposition must be given");
+        requireNonNull(filename, "filename must be given");
+        requireNonNull(out, "out must be given");
 
-            return result;
+        if (cache != null && isoFallback.isCacheable()) {
+            out.append(cache.headerValue(this));
+            return;
         }
+
+        renderTo(out);
     }
 
-    private boolean valueNeedsEncoding() {
-        // allowed values for the ISO-8859-1 header value (type "value")
-        // are defined as (RFC2616, Section 3.6)
-        boolean isIso = filename.codePoints()
-                .allMatch(rfc2616CharacterRules::isOCTET);
+    /**
+     * Same as {@link #headerValue()} but streams the value into out (e.g. the {@link java.io.Writer} of a response),
+     * without buffering it first (unless a {@link HeaderValueCache} is configured: then the cached String gets appended).
+     */
+    public void headerValue(Appendable out) throws IOException {
+        requireNonNull(out, "out must be given");
+
+        if (out instanceof StringBuilder) {
+            headerValue((StringBuilder) out);
+            return;
+        }
+
+        if (cache != null && isoFallback.isCacheable()) {
+            out.append(cache.headerValue(this));
+            return;
+        }
 
-        return !isIso;
+        renderTo(renderedFilename(), out);
     }
 
+    /**
+     * The exact length of {@link #headerValue()}, computed without rendering, e.g. to pre-size buffers or check budgets.
+     * <p>
+     * Allocation-free for the default {@link EncodeIsoFallback} (unless maxHeaderLength has to shorten the filename).
+     */
+    public int encodedLength() {
+        return HeaderRenderer.encodedLength(disposition, renderedFilename(), isoFallback, locale, maxSegmentLength)
+                + parametersLength();
+    }
 
-    private String formatIsoOnly() {
-        String value = buildEncodedAndQuotedIsoFilename();
-
-        //TODO: not only filename but an Attribute-Map
-        String result = formatContentDisposition(singletonList(new HeaderValue(FILENAME_PARAM_NAME, value)));
+    /**
+     * Writes the complete header line (without line terminator) as ISO-8859-1 octets,
+     * e.g.: {@code Content-Disposition: attachment; filename=foo.txt}.
+     *
+     * @return the number of bytes written.
+     * @throws BufferOverflowException if out has not enough room. Nothing is written in this case.
+     * @see #writeValueTo(ByteBuffer)
+     */
+    public int writeTo(ByteBuffer out) {
+        return write(HEADER_LINE_PREFIX, out);
+    }
 
-        return result;
+    /**
+     * Writes the {@link #headerValue()} as ISO-8859-1 octets,
+     * e.g. for NIO servers writing their headers into a (pooled) ByteBuffer.
+     * <p>
+     * The octets get rendered straight into out, no intermediate String:
+     * allocation-free for the default {@link EncodeIsoFallback}, just as {@link #encodedLength()}.
+     *
+     * @return the number of bytes written.
+     * @throws BufferOverflowException if out has not enough room. Nothing is written in this case.
+     */
+    public int writeValueTo(ByteBuffer out) {
+        return write("", out);
     }
 
-    private String formatContentDisposition(
-            List<HeaderValue> headerValues
-    ) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(disposition.getHeaderAttribute());
-        for (HeaderValue headerValue : headerValues) {
-            if (headerValue.getIsoValue() != null) {
-                sb.append("; ");
-                sb.append(headerValue.getName()).append("=").append(headerValue.getIsoValue());
-            }
-            if (headerValue.getExtValue() != null) {
-                sb.append("; ");
-                sb.append(headerValue.getName()).append("*=").append(headerValue.getExtValue());
+    /**
+     * Checks the room using the exact {@link #encodedLength()}, then renders the octets straight into out.
+     */
+    private int write(String prefix, ByteBuffer out) {
+        requireNonNull(out, "out must be given");
+
+        if (cache != null && isoFallback.isCacheable()) {
+            String value = cache.headerValue(this);
+            if (out.remaining() < prefix.length() + value.length()) {
+                throw new BufferOverflowException();
             }
+
+            return Latin1Bytes.put(prefix, out) + Latin1Bytes.put(value, out);
         }
 
-        return sb.toString();
+        String renderedFilename = renderedFilename();
+        int length = prefix.length()
+                + HeaderRenderer.encodedLength(disposition, renderedFilename, isoFallback, locale, maxSegmentLength)
+                + parametersLength();
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        Latin1ByteSink sink = BYTE_SINKS.get();
+        if (sink.isInUse()) {
+            // reentrant, e.g. a custom IsoFallback writing a header of its own
+            sink = new Latin1ByteSink();
+        }
+
+        int position = out.position();
+        try {
+            sink.writeInto(out).append(prefix);
+            renderTo(renderedFilename, sink);
+        } catch (BufferOverflowException e) {
+            // only possible if a custom IsoFallback answered differently while measuring: take back the partial write
+            // cast: ByteBuffer.position(int) only exists since Java 9
+            ((Buffer) out).position(position);
+            throw e;
+        } catch (IOException e) {
+            // Latin1ByteSink never throws
+            throw new UncheckedIOException(e);
+        } finally {
+            sink.release();
+        }
+
+        return length;
     }
 
-    @Nullable
-    private String buildEncodedAndQuotedIsoFilename() {
-        String isoFilename = isoFallback.fallback(filename);
-        if (isoFilename == null) {
-            return null;
+    /**
+     * Renders the header values of many files at once, e.g. for listings or archive manifests.
+     * <p>
+     * Same as building one instance per filename (using the default {@link EncodeIsoFallback}) and calling
+     * {@link #headerValue()}, but without the per-item builder/instance:
+     * one {@link HeaderRenderer} (and its scratch buffers) renders the whole batch.
+     *
+     * @return the header values, in the order of filenames.
+     */
+    public static String[] renderAll(Disposition disposition, List<String> filenames, @Nullable Locale locale) {
+        return renderAll(disposition, filenames, new EncodeIsoFallback(), locale);
+    }
+
+    /**
+     * Same as {@link #renderAll(Disposition, List, Locale)} with a custom {@link IsoFallback}.
+     */
+    public static String[] renderAll(
+            Disposition disposition,
+            List<String> filenames,
+            IsoFallback isoFallback,
+            @Nullable Locale locale
+    ) {
+        requireNonNull(disposition, "disposition must be given");
+        requireNonNull(filenames, "filenames must be given");
+        requireNonNull(isoFallback, "isoFallback must be given");
+
+        HeaderRenderer renderer = new HeaderRenderer();
+        String[] result = new String[filenames.size()];
+
+        int i = 0;
+        for (String filename : filenames) {
+            result[i++] = renderer.render(disposition, filename, isoFallback, locale);
         }
 
-        String actual = isoFilename;
-        if (isoFallback.needsEncoding()) {
-            actual = ISO_88591_ENCODER.encode(isoFilename);
+        return result;
+    }
+
+    /**
+     * Renders the header values of (very) many files using all cores of the common {@link ForkJoinPool}.
+     *
+     * @see #renderAllParallel(Disposition, String[], IsoFallback, Locale, ForkJoinPool)
+     */
+    public static String[] renderAllParallel(Disposition disposition, String[] filenames, @Nullable Locale locale) {
+        return renderAllParallel(disposition, filenames, new EncodeIsoFallback(), locale, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #renderAll(Disposition, List, IsoFallback, Locale)} but fans out the work over pool.
+     * <p>
+     * Every worker uses its own scratch state, the results keep the input order.
+     * isoFallback gets called concurrently and thus must be thread safe (the provided implementations are).
+     * <p>
+     * Only worth it for large batches (thousands of filenames), smaller batches are rendered sequentially anyway.
+     */
+    public static String[] renderAllParallel(
+            Disposition disposition,
+            String[] filenames,
+            IsoFallback isoFallback,
+            @Nullable Locale locale,
+            ForkJoinPool pool
+    ) {
+        requireNonNull(disposition, "disposition must be given");
+        requireNonNull(filenames, "filenames must be given");
+        requireNonNull(isoFallback, "isoFallback must be given");
+        requireNonNull(pool, "pool must be given");
+        for (String filename : filenames) {
+            requireNonNull(filename, "filename must be given");
         }
 
-        String result = addQuotes(actual);
+        String[] result = new String[filenames.length];
+        pool.invoke(BulkRenderTask.create(disposition, filenames, isoFallback, locale, result, pool.getParallelism()));
 
         return result;
     }
 
-    private String addQuotes(String input) {
-        if (!isoValueNeedsQuoting(input)) {
-            return input;
+    String render() {
+        if (parameters.isEmpty()) {
+            return new HeaderRenderer(maxSegmentLength).render(disposition, renderedFilename(), isoFallback, locale);
         }
 
-        String quoted = input.replace("\"", "\\\"");
+        StringBuilder result = new StringBuilder(estimatedLength());
+        renderTo(result);
 
-        return '"' + quoted + '"';
+        return result.toString();
     }
 
-    private boolean isoValueNeedsQuoting(String input) {
-        return !rfc2616CharacterRules.isToken(input);
+    private void renderTo(StringBuilder out) {
+        new HeaderRenderer(maxSegmentLength).render(disposition, renderedFilename(), isoFallback, locale, out);
+
+        for (int i = 0; i < parameters.size(); i++) {
+            parameters.get(i).appendTo(out);
+        }
     }
 
+    private void renderTo(String renderedFilename, Appendable out) throws IOException {
+        HeaderRenderer.renderTo(disposition, renderedFilename, isoFallback, locale, maxSegmentLength, out);
 
-    private String formatBothIsoAndEncoded() {
-        String isoEncoded = buildEncodedAndQuotedIsoFilename();
-        Encoded rfcEncoded = rfc8187Encoder.encodeExtValue(filename, locale);
+        for (int i = 0; i < parameters.size(); i++) {
+            parameters.get(i).appendTo(out);
+        }
+    }
+
+    /**
+     * The filename, shortened if it does not fit into maxHeaderLength.
+     */
+    private String renderedFilename() {
+        if (maxHeaderLength == NO_MAX_HEADER_LENGTH) {
+            return filename;
+        }
 
-        String result = formatContentDisposition(
-                singletonList(new HeaderValue(FILENAME_PARAM_NAME, isoEncoded, rfcEncoded.getValue()))
+        int parametersLength = parametersLength();
+        int length = HeaderRenderer.encodedLength(disposition, filename, isoFallback, locale, maxSegmentLength);
+        if (length + parametersLength <= maxHeaderLength) {
+            return filename;
+        }
+
+        return FilenameTruncator.truncate(
+                disposition,
+                filename,
+                isoFallback,
+                locale,
+                parametersLength,
+                maxSegmentLength,
+                maxHeaderLength
         );
+    }
+
+    private int parametersLength() {
+        int result = 0;
+        for (int i = 0; i < parameters.size(); i++) {
+            result += parameters.get(i).length();
+        }
 
         return result;
     }
 
+    private int estimatedLength() {
+        return 64 + filename.length() + 32 * parameters.size();
+    }
+
     public Disposition getDisposition() {
         return disposition;
     }
@@ -172,37 +390,24 @@ public class HttpContentDisposition {
         return locale;
     }
 
-    private static class HeaderValue {
-
-        private final String name;
-        @Nullable
-        private final String isoValue;
-        @Nullable
-        private final String extValue;
-
-        public HeaderValue(String name, @Nullable String isoValue, @Nullable String extValue) {
-            this.name = requireNonNull(name);
-            this.isoValue = isoValue;
-            this.extValue = extValue;
-        }
-
-        public HeaderValue(String name, @Nullable String isoValue) {
-            this(name, isoValue, null);
-        }
+    @Nullable
+    public HeaderValueCache getCache() {
+        return cache;
+    }
 
-        public String getName() {
-            return name;
-        }
+    /**
+     * The additional parameters, in the order they get rendered.
+     */
+    public List<HeaderValue> getParameters() {
+        return parameters;
+    }
 
-        @Nullable
-        public String getIsoValue() {
-            return isoValue;
-        }
+    public int getMaxSegmentLength() {
+        return maxSegmentLength;
+    }
 
-        @Nullable
-        public String getExtValue() {
-            return extValue;
-        }
+    public int getMaxHeaderLength() {
+        return maxHeaderLength;
     }
 
     public Builder toBuilder() {
@@ -211,6 +416,10 @@ public class HttpContentDisposition {
                 .filename(this.getFilename())
                 .isoFallback(this.getIsoFallback())
                 .locale(this.getLocale())
+                .cache(this.getCache())
+                .parameters(this.getParameters())
+                .maxSegmentLength(this.getMaxSegmentLength())
+                .maxHeaderLength(this.getMaxHeaderLength())
                 ;
     }
 
@@ -238,6 +447,83 @@ public class HttpContentDisposition {
         @Nullable
         Locale getLocale();
 
+        /**
+         * Opt-in: share rendered header values between instances.
+         * <p>
+         * null (the default) disables caching.
+         */
+        Builder cache(@Nullable HeaderValueCache cache);
+
+        @Nullable
+        HeaderValueCache getCache();
+
+        /**
+         * Adds an additional parameter, replacing a previously added one of the same (case-insensitive) name.
+         */
+        Builder parameter(HeaderValue parameter);
+
+        /**
+         * Convenience for {@link #parameter(HeaderValue)}, see: {@link HeaderValue#of(String, String)}.
+         */
+        Builder parameter(String name, String value);
+
+        /**
+         * Convenience for {@link #parameter(HeaderValue)}, see: {@link HeaderValue#of(String, long)}.
+         */
+        Builder parameter(String name, long value);
+
+        /**
+         * Adds all parameters, see: {@link #parameter(HeaderValue)}.
+         */
+        Builder parameters(List<HeaderValue> parameters);
+
+        List<HeaderValue> getParameters();
+
+        /**
+         * RFC 2183: {@code size=<octets>}
+         */
+        Builder size(long size);
+
+        /**
+         * RFC 2183: {@code creation-date="<RFC 822 date-time>"}
+         */
+        Builder creationDate(Instant creationDate);
+
+        /**
+         * RFC 2183: {@code modification-date="<RFC 822 date-time>"}
+         */
+        Builder modificationDate(Instant modificationDate);
+
+        /**
+         * RFC 2183: {@code read-date="<RFC 822 date-time>"}
+         */
+        Builder readDate(Instant readDate);
+
+        /**
+         * Opt-in: split filename* values longer than maxSegmentLength into RFC 2231 continuations
+         * ({@code filename*0*=...; filename*1*=...}), e.g. for mail gateways or proxies that truncate long parameters.
+         * <p>
+         * {@link HeaderRenderer#NO_CONTINUATIONS} (the default) disables splitting,
+         * see: {@link HeaderRenderer#HeaderRenderer(int)} for the details.
+         */
+        Builder maxSegmentLength(int maxSegmentLength);
+
+        int getMaxSegmentLength();
+
+        /**
+         * Opt-in: shorten the filename so the header value (without the "Content-Disposition: " name)
+         * is at most maxHeaderLength chars, e.g. to stay within a response header limit of a proxy.
+         * <p>
+         * The base name gets cut on a code point boundary, a short extension (e.g. ".pdf") is kept.
+         * Both the ISO filename and filename* derive from the shortened name.
+         * <p>
+         * {@link HttpContentDisposition#NO_MAX_HEADER_LENGTH} (the default) never shortens.
+         * Rendering throws an IllegalStateException if not even an empty filename fits.
+         */
+        Builder maxHeaderLength(int maxHeaderLength);
+
+        int getMaxHeaderLength();
+
         HttpContentDisposition build();
     }
 
@@ -247,6 +533,11 @@ public class HttpContentDisposition {
         private IsoFallback isoFallback = new EncodeIsoFallback();
         @Nullable
         private Locale locale = null;
+        @Nullable
+        private HeaderValueCache cache = null;
+        private final List<HeaderValue> parameters = new ArrayList<>();
+        private int maxSegmentLength = HeaderRenderer.NO_CONTINUATIONS;
+        private int maxHeaderLength = NO_MAX_HEADER_LENGTH;
 
         @Override
         public Builder disposition(Disposition disposition) {
@@ -304,13 +595,115 @@ public class HttpContentDisposition {
             return locale;
         }
 
+        @Override
+        public Builder cache(@Nullable HeaderValueCache cache) {
+            this.cache = cache;
+
+            return this;
+        }
+
+        @Override
+        @Nullable
+        public HeaderValueCache getCache() {
+            return cache;
+        }
+
+        @Override
+        public Builder parameter(HeaderValue parameter) {
+            requireNonNull(parameter, "parameter must be given");
+
+            for (int i = 0; i < parameters.size(); i++) {
+                if (parameters.get(i).hasName(parameter.getName())) {
+                    parameters.set(i, parameter);
+                    return this;
+                }
+            }
+            parameters.add(parameter);
+
+            return this;
+        }
+
+        @Override
+        public Builder parameter(String name, String value) {
+            return parameter(HeaderValue.of(name, value));
+        }
+
+        @Override
+        public Builder parameter(String name, long value) {
+            return parameter(HeaderValue.of(name, value));
+        }
+
+        @Override
+        public Builder parameters(List<HeaderValue> parameters) {
+            for (HeaderValue parameter : parameters) {
+                parameter(parameter);
+            }
+
+            return this;
+        }
+
+        @Override
+        public List<HeaderValue> getParameters() {
+            return Collections.unmodifiableList(parameters);
+        }
+
+        @Override
+        public Builder size(long size) {
+            return parameter(HeaderValue.of(HeaderValue.SIZE, size));
+        }
+
+        @Override
+        public Builder creationDate(Instant creationDate) {
+            return parameter(HeaderValue.of(HeaderValue.CREATION_DATE, creationDate));
+        }
+
+        @Override
+        public Builder modificationDate(Instant modificationDate) {
+            return parameter(HeaderValue.of(HeaderValue.MODIFICATION_DATE, modificationDate));
+        }
+
+        @Override
+        public Builder readDate(Instant readDate) {
+            return parameter(HeaderValue.of(HeaderValue.READ_DATE, readDate));
+        }
+
+        @Override
+        public Builder maxSegmentLength(int maxSegmentLength) {
+            this.maxSegmentLength = HeaderRenderer.checkSegmentLength(maxSegmentLength);
+
+            return this;
+        }
+
+        @Override
+        public int getMaxSegmentLength() {
+            return maxSegmentLength;
+        }
+
+        @Override
+        public Builder maxHeaderLength(int maxHeaderLength) {
+            this.maxHeaderLength = checkMaxHeaderLength(maxHeaderLength);
+
+            return this;
+        }
+
+        @Override
+        public int getMaxHeaderLength() {
+            return maxHeaderLength;
+        }
+
         @Override
         public HttpContentDisposition build() {
             return new HttpContentDisposition(
                     disposition,
                     filename,
                     isoFallback,
-                    locale
+                    locale,
+                    cache,
+                    parameters.isEmpty()
+                            ? Collections.emptyList()
+                            : Collections.unmodifiableList(new ArrayList<>(parameters)),
+                    maxSegmentLength,
+                    maxHeaderLength
             );
         }
     }
@@ -0,0 +1,471 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.Util;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Decoder;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The result of {@link ContentDispositionParser}: a lazy view on the parsed input.
+ * <p>
+ * Only offsets into the parsed input are kept.
+ * The parameters get scanned on the first parameter access, a value gets unquoted/decoded on its first access
+ * (and is remembered for subsequent calls).
+ * Thus invalid parameters are only reported (by an {@link IllegalArgumentException}) once a parameter is accessed.
+ * <p>
+ * Parameter names are matched case-insensitive.
+ * Parameter names ending in "*" are ext-parameters (RFC 8187): their values get pct-decoded.
+ * Ext-parameters in a charset other than UTF-8 or ISO-8859-1 are ignored (their value is null),
+ * as recommended by <a href="https://tools.ietf.org/html/rfc6266#section-4.3">RFC 6266, Section 4.3</a>.
+ * If a parameter occurs more than once, the first one wins.
+ * <p>
+ * <a href="https://tools.ietf.org/html/rfc2231#section-3">RFC 2231</a> continuations
+ * ({@code name*0*=UTF-8''...; name*1*=...} or {@code name*0="..."; name*1="..."}) are accessible by their
+ * base name ("name*" or "name"), reassembled on each access. Accessed by index, the segments are returned as given:
+ * only the first one of an ext-parameter declares a charset and thus gets decoded.
+ */
+@NotThreadSafe
+public final class ParsedContentDisposition {
+    /**
+     * nameStart, nameEnd, valueStart, valueEnd, flags, section
+     */
+    static final int SLOT_SIZE = 6;
+    /**
+     * The section of a parameter that is not part of a continuation.
+     */
+    static final int NO_SECTION = -1;
+
+    static final int QUOTED = 1;
+    /**
+     * A quoted-string with backslashes that are not quoted-pairs.
+     */
+    static final int LITERAL_BACKSLASHES = 1 << 1;
+    static final int EXT_VALUE = 1 << 2;
+    static final int UNSUPPORTED_CHARSET = 1 << 3;
+    /**
+     * A section of an RFC 2231 continuation.
+     */
+    static final int CONTINUATION = 1 << 4;
+    /**
+     * A quoted-string where only quotes are escaped, other backslashes are literal
+     * (as rendered by {@link HttpContentDisposition}).
+     */
+    static final int ESCAPED_QUOTES_ONLY = 1 << 5;
+
+    private static final RFC8187Decoder RFC_8187_DECODER = new RFC8187Decoder();
+    private static final String FILENAME_PARAM_NAME = "filename";
+    private static final String FILENAME_EXT_PARAM_NAME = "filename*";
+    private static final int NOT_FOUND = -1;
+
+    private final CharSequence input;
+    private final int typeStart;
+    private final int typeEnd;
+    private final int parametersStart;
+
+    /**
+     * null until the parameters got scanned.
+     */
+    @Nullable
+    private int[] parameters = null;
+    private int parameterCount = 0;
+    /**
+     * Memoized unquoted/decoded values, null until the first value is needed.
+     */
+    @Nullable
+    private String[] values = null;
+
+    ParsedContentDisposition(CharSequence input, int typeStart, int typeEnd, int parametersStart) {
+        this.input = requireNonNull(input);
+        this.typeStart = typeStart;
+        this.typeEnd = typeEnd;
+        this.parametersStart = parametersStart;
+    }
+
+    /**
+     * The disposition-type as given in the header (e.g.: "attachment" or "Inline").
+     */
+    public String getType() {
+        return input.subSequence(typeStart, typeEnd).toString();
+    }
+
+    /**
+     * The disposition-type, if it is one of the known {@link Disposition}s.
+     */
+    public Optional<Disposition> getDisposition() {
+        return Disposition.fromText(input, typeStart, typeEnd);
+    }
+
+    public boolean isAttachment() {
+        return getDisposition().orElse(null) == Disposition.ATTACHMENT;
+    }
+
+    public boolean isInline() {
+        return getDisposition().orElse(null) == Disposition.INLINE;
+    }
+
+    /**
+     * The filename as recommended by <a href="https://tools.ietf.org/html/rfc6266#section-4.3">RFC 6266, Section 4.3</a>:
+     * "filename*" if given (and in a supported charset), "filename" otherwise.
+     */
+    @Nullable
+    public String getFilename() {
+        String result = getParameter(FILENAME_EXT_PARAM_NAME);
+        if (result != null) {
+            return result;
+        }
+
+        return getParameter(FILENAME_PARAM_NAME);
+    }
+
+    /**
+     * The language of the "filename*" parameter.
+     *
+     * @return null if there is no "filename*" parameter or it declares no language.
+     */
+    @Nullable
+    public Locale getFilenameLocale() {
+        int index = indexOf(FILENAME_EXT_PARAM_NAME);
+        if (index == NOT_FOUND) {
+            index = indexOfFirstSection(FILENAME_EXT_PARAM_NAME);
+        }
+        if (index == NOT_FOUND || (flags(index) & UNSUPPORTED_CHARSET) != 0) {
+            return null;
+        }
+
+        String language = RFC_8187_DECODER.decodeLanguage(input, valueStart(index), valueEnd(index));
+        if (language.isEmpty()) {
+            return null;
+        }
+
+        return Locale.forLanguageTag(language);
+    }
+
+    /**
+     * The unquoted (or for ext-parameters: decoded) value of the named parameter.
+     * Continuations are reassembled.
+     *
+     * @return null if the parameter is not present (or an ext-parameter in an unsupported charset).
+     */
+    @Nullable
+    public String getParameter(String name) {
+        requireNonNull(name, "name must be given");
+
+        int index = indexOf(name);
+        if (index == NOT_FOUND) {
+            return joinContinuation(name);
+        }
+
+        return getParameterValue(index);
+    }
+
+    public int getParameterCount() {
+        ensureParametersScanned();
+
+        return parameterCount;
+    }
+
+    /**
+     * The parameter name as given in the header (i.e.: not normalized).
+     */
+    public String getParameterName(int index) {
+        checkIndex(index);
+
+        return input.subSequence(nameStart(index), nameEnd(index)).toString();
+    }
+
+    /**
+     * The unquoted (or for ext-parameters: decoded) parameter value.
+     *
+     * @return null for an ext-parameter in an unsupported charset.
+     */
+    @Nullable
+    public String getParameterValue(int index) {
+        checkIndex(index);
+
+        if (values == null) {
+            values = new String[parameterCount];
+        }
+
+        String result = values[index];
+        if (result == null && (flags(index) & UNSUPPORTED_CHARSET) == 0) {
+            result = decodeValue(index);
+            values[index] = result;
+        }
+
+        return result;
+    }
+
+    private String decodeValue(int index) {
+        int start = valueStart(index);
+        int end = valueEnd(index);
+        int flags = flags(index);
+
+        if ((flags & EXT_VALUE) != 0) {
+            if (section(index) > 0) {
+                // no charset of its own: see joinContinuation()
+                return input.subSequence(start, end).toString();
+            }
+            return RFC_8187_DECODER.decodeValue(input, start, end);
+        }
+        if ((flags & LITERAL_BACKSLASHES) != 0) {
+            // without the surrounding quotes
+            return input.subSequence(start + 1, end - 1).toString();
+        }
+        if ((flags & QUOTED) != 0) {
+            return unquote(start, end, (flags & ESCAPED_QUOTES_ONLY) != 0);
+        }
+
+        return input.subSequence(start, end).toString();
+    }
+
+    private String unquote(int start, int end, boolean escapedQuotesOnly) {
+        // without the surrounding quotes
+        int last = end - 1;
+        StringBuilder result = new StringBuilder(last - start - 1);
+
+        for (int i = start + 1; i < last; i++) {
+            char c = input.charAt(i);
+            // with escaped quotes only, the backslash before the closing quote is literal
+            if (c == '\\' && (!escapedQuotesOnly || (i + 1 < last && input.charAt(i + 1) == '"'))) {
+                // quoted-pair
+                i++;
+                c = input.charAt(i);
+            }
+            result.append(c);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * @param name "name*" for an ext-parameter continuation ({@code name*0*=...}), "name" otherwise ({@code name*0=...}).
+     * @return null if there is no such continuation.
+     */
+    @Nullable
+    private String joinContinuation(String name) {
+        int[] sections = findSections(name);
+        if (sections == null) {
+            return null;
+        }
+        if (!isExtParameterName(name)) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < sections.length && sections[i] != NOT_FOUND; i++) {
+                result.append(getParameterValue(sections[i]));
+            }
+
+            return result.toString();
+        }
+
+        int first = sections[0];
+        Charset charset = RFC_8187_DECODER.decodeCharset(input, valueStart(first), valueEnd(first));
+        if (charset == null) {
+            return null;
+        }
+
+        // the octets of all sections make up the value: a character might span sections
+        int octetCount = 0;
+        for (int i = 0; i < sections.length && sections[i] != NOT_FOUND; i++) {
+            octetCount += sectionOctetCount(sections[i]);
+        }
+        byte[] octets = new byte[octetCount];
+        int pos = 0;
+        for (int i = 0; i < sections.length && sections[i] != NOT_FOUND; i++) {
+            pos = decodeSectionOctets(sections[i], octets, pos);
+        }
+
+        return new String(octets, charset);
+    }
+
+    private int sectionOctetCount(int index) {
+        int start = sectionValueStart(index);
+        if ((flags(index) & EXT_VALUE) != 0) {
+            return RFC_8187_DECODER.octetCount(input, start, valueEnd(index));
+        }
+
+        return getParameterValue(index).length();
+    }
+
+    private int decodeSectionOctets(int index, byte[] out, int pos) {
+        int start = sectionValueStart(index);
+        if ((flags(index) & EXT_VALUE) != 0) {
+            return RFC_8187_DECODER.decodeOctets(input, start, valueEnd(index), out, pos);
+        }
+
+        // not encoded: header chars are ISO-8859-1 octets
+        String value = getParameterValue(index);
+        int result = pos;
+        for (int i = 0; i < value.length(); i++) {
+            out[result++] = (byte) value.charAt(i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Skips charset and language of the first section.
+     */
+    private int sectionValueStart(int index) {
+        int start = valueStart(index);
+        if (section(index) == 0 && (flags(index) & EXT_VALUE) != 0) {
+            return RFC_8187_DECODER.valueCharsStart(input, start, valueEnd(index));
+        }
+
+        return start;
+    }
+
+    /**
+     * @return the parameter indexes by section number, up to the first missing section ({@link #NOT_FOUND})
+     * or null if there is no first section.
+     */
+    @Nullable
+    private int[] findSections(String name) {
+        int first = indexOfFirstSection(name);
+        if (first == NOT_FOUND) {
+            return null;
+        }
+
+        int baseLength = baseNameLength(name);
+        int[] result = new int[parameterCount];
+        Arrays.fill(result, NOT_FOUND);
+        for (int i = 0; i < parameterCount; i++) {
+            int section = section(i);
+            if (section >= 0 && section < parameterCount && result[section] == NOT_FOUND
+                    && baseNameEquals(i, name, baseLength)) {
+                result[section] = i;
+            }
+        }
+        result[0] = first;
+
+        return result;
+    }
+
+    /**
+     * The section 0 of the continuation: {@code name*0*} for "name*", {@code name*0} for "name".
+     */
+    private int indexOfFirstSection(String name) {
+        ensureParametersScanned();
+
+        int baseLength = baseNameLength(name);
+        boolean isExt = isExtParameterName(name);
+        for (int i = 0; i < parameterCount; i++) {
+            if (section(i) == 0 && ((flags(i) & EXT_VALUE) != 0) == isExt && baseNameEquals(i, name, baseLength)) {
+                return i;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private static boolean isExtParameterName(String name) {
+        return !name.isEmpty() && name.charAt(name.length() - 1) == '*';
+    }
+
+    private static int baseNameLength(String name) {
+        return isExtParameterName(name) ? name.length() - 1 : name.length();
+    }
+
+    /**
+     * base "*" section [ "*" ]
+     */
+    private boolean baseNameEquals(int index, String name, int baseLength) {
+        int sectionLength = 1 + Util.decimalLength(section(index)) + ((flags(index) & EXT_VALUE) != 0 ? 1 : 0);
+
+        return regionEqualsIgnoreCase(nameStart(index), nameEnd(index) - sectionLength, name, baseLength);
+    }
+
+    private void ensureParametersScanned() {
+        if (parameters != null) {
+            return;
+        }
+
+        ContentDispositionParser.Scanner scanner = new ContentDispositionParser.Scanner(input);
+        scanner.scanParameters(parametersStart);
+
+        parameters = scanner.getParameters();
+        parameterCount = scanner.getParameterCount();
+    }
+
+    private int indexOf(String name) {
+        ensureParametersScanned();
+
+        for (int i = 0; i < parameterCount; i++) {
+            if (nameEquals(i, name)) {
+                return i;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private boolean nameEquals(int index, String name) {
+        return regionEqualsIgnoreCase(nameStart(index), nameEnd(index), name, name.length());
+    }
+
+    /**
+     * input[start, end) equals name[0, nameLength), ignoring case.
+     */
+    private boolean regionEqualsIgnoreCase(int start, int end, String name, int nameLength) {
+        int length = end - start;
+        if (length != nameLength) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char a = input.charAt(start + i);
+            char b = name.charAt(i);
+            if (a != b && toLowerAscii(a) != toLowerAscii(b)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private void checkIndex(int index) {
+        ensureParametersScanned();
+
+        if (index < 0 || index >= parameterCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", parameterCount: " + parameterCount);
+        }
+    }
+
+    private int nameStart(int index) {
+        return parameters[index * SLOT_SIZE];
+    }
+
+    private int nameEnd(int index) {
+        return parameters[index * SLOT_SIZE + 1];
+    }
+
+    private int valueStart(int index) {
+        return parameters[index * SLOT_SIZE + 2];
+    }
+
+    private int valueEnd(int index) {
+        return parameters[index * SLOT_SIZE + 3];
+    }
+
+    private int flags(int index) {
+        return parameters[index * SLOT_SIZE + 4];
+    }
+
+    private int section(int index) {
+        return parameters[index * SLOT_SIZE + 5];
+    }
+
+    @Override
+    public String toString() {
+        return "ParsedContentDisposition[" + input + "]";
+    }
+}
@@ -1,2 +0,0 @@
-package com.github.HonoluluHenk.httpcontentdisposition.internal;
-
@@ -0,0 +1,80 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link Appendable} writing ISO-8859-1 octets straight into a {@link ByteBuffer}, see: {@link Latin1Bytes}.
+ * <p>
+ * Every append advances the position of the buffer: callers wanting all or nothing check the room upfront.
+ * <p>
+ * Reusable (e.g. kept in a {@link ThreadLocal}): {@link #writeInto(ByteBuffer)} and {@link #release()} the buffer
+ * around every use.
+ */
+@NotThreadSafe
+public final class Latin1ByteSink implements Appendable {
+    @Nullable
+    private ByteBuffer out = null;
+
+    public Latin1ByteSink writeInto(ByteBuffer out) {
+        this.out = out;
+
+        return this;
+    }
+
+    /**
+     * Forgets the buffer, so a reused sink does not keep it reachable.
+     */
+    public void release() {
+        out = null;
+    }
+
+    /**
+     * @return true between {@link #writeInto(ByteBuffer)} and {@link #release()}.
+     */
+    public boolean isInUse() {
+        return out != null;
+    }
+
+    /**
+     * @throws BufferOverflowException if out has not enough room. Nothing is written in this case.
+     */
+    @Override
+    public Latin1ByteSink append(@Nullable CharSequence csq) {
+        CharSequence actual = csq == null ? "null" : csq;
+
+        return append(actual, 0, actual.length());
+    }
+
+    /**
+     * @throws BufferOverflowException if out has not enough room. Nothing is written in this case.
+     */
+    @Override
+    public Latin1ByteSink append(@Nullable CharSequence csq, int start, int end) {
+        Latin1Bytes.put(csq == null ? "null" : csq, start, end, buffer());
+
+        return this;
+    }
+
+    /**
+     * @throws BufferOverflowException if out is full.
+     */
+    @Override
+    public Latin1ByteSink append(char c) {
+        buffer().put(Latin1Bytes.toLatin1(c));
+
+        return this;
+    }
+
+    private ByteBuffer buffer() {
+        ByteBuffer result = out;
+        if (result == null) {
+            throw new IllegalStateException("No buffer to write into, see: writeInto()");
+        }
+
+        return result;
+    }
+}
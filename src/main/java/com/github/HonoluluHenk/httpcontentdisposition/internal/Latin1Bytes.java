@@ -0,0 +1,61 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes characters as ISO-8859-1 octets straight into a {@link ByteBuffer}.
+ * <p>
+ * Characters outside ISO-8859-1 are replaced by '?' (one per char), just as the JDK encoder does for unpaired chars.
+ */
+public final class Latin1Bytes {
+    private static final byte REPLACEMENT = '?';
+
+    private Latin1Bytes() {
+        // utility class
+    }
+
+    /**
+     * Writes all chars at the current position of out and advances the position.
+     *
+     * @return the number of bytes written (always: input.length()).
+     * @throws BufferOverflowException if out has not enough room. Nothing is written in this case.
+     */
+    public static int put(CharSequence input, ByteBuffer out) {
+        return put(input, 0, input.length(), out);
+    }
+
+    /**
+     * Same as {@link #put(CharSequence, ByteBuffer)} for the chars from start (inclusive) to end (exclusive).
+     */
+    public static int put(CharSequence input, int start, int end, ByteBuffer out) {
+        int length = end - start;
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        int position = out.position();
+        if (out.hasArray()) {
+            byte[] array = out.array();
+            int offset = out.arrayOffset() + position - start;
+            for (int i = start; i < end; i++) {
+                array[offset + i] = toLatin1(input.charAt(i));
+            }
+        } else {
+            int offset = position - start;
+            for (int i = start; i < end; i++) {
+                out.put(offset + i, toLatin1(input.charAt(i)));
+            }
+        }
+
+        // cast: ByteBuffer.position(int) only exists since Java 9
+        ((Buffer) out).position(position + length);
+
+        return length;
+    }
+
+    static byte toLatin1(char c) {
+        return c <= 0xFF ? (byte) c : REPLACEMENT;
+    }
+}
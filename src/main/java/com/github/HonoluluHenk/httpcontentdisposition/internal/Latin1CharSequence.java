@@ -0,0 +1,65 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link CharSequence} view on ISO-8859-1 octets: every byte is one char, nothing gets copied.
+ * <p>
+ * The view is only valid as long as the underlying bytes do not change.
+ */
+@ThreadSafe
+public final class Latin1CharSequence implements CharSequence {
+    private final ByteBuffer bytes;
+
+    private Latin1CharSequence(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    public static Latin1CharSequence of(byte[] bytes, int offset, int length) {
+        return new Latin1CharSequence(ByteBuffer.wrap(bytes, offset, length).slice());
+    }
+
+    /**
+     * View on the remaining bytes of buffer (position and limit of buffer are not modified).
+     */
+    public static Latin1CharSequence of(ByteBuffer buffer) {
+        return new Latin1CharSequence(buffer.slice());
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length());
+        }
+
+        ByteBuffer duplicate = bytes.duplicate();
+        // casts: the covariant ByteBuffer overloads only exist since Java 9
+        ((Buffer) duplicate).limit(end);
+        ((Buffer) duplicate).position(start);
+
+        return new Latin1CharSequence(duplicate.slice());
+    }
+
+    @Override
+    public String toString() {
+        int length = length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charAt(i);
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A size bounded cache with least-recently-used eviction.
+ * <p>
+ * Keys are spread over independently locked stripes (each an access ordered {@link LinkedHashMap})
+ * so concurrent readers do not contend on a global lock.
+ * Eviction is per stripe: the cache never holds more than maximumSize entries,
+ * but might evict a little earlier than a global LRU would.
+ */
+@ThreadSafe
+public final class StripedLruCache<K, V> {
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe<K, V>[] stripes;
+    private final int stripeMask;
+    private final long maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive but was: " + maximumSize);
+        }
+
+        // power of two: the stripe index is a simple mask
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(maximumSize));
+        int stripeSize = maximumSize / stripeCount;
+        // the first stripes take one more entry each so the sizes add up to maximumSize
+        int remainder = maximumSize % stripeCount;
+
+        this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(i < remainder ? stripeSize + 1 : stripeSize);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached value or computes (and caches) it.
+     * <p>
+     * The computation runs outside any lock: concurrent callers might compute the same value twice.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> computation) {
+        Stripe<K, V> stripe = stripeFor(key);
+
+        V cached = stripe.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        V computed = requireNonNull(computation.apply(key), "computation must not return null");
+        stripe.put(key, computed);
+
+        return computed;
+    }
+
+    @Nullable
+    public V getIfPresent(K key) {
+        V result = stripeFor(key).get(key);
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return result;
+    }
+
+    public void put(K key, V value) {
+        stripeFor(key).put(key, requireNonNull(value));
+    }
+
+    public long size() {
+        long result = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            result += stripe.size();
+        }
+
+        return result;
+    }
+
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Drops all entries, the counters are not reset.
+     */
+    public void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        // spread the high bits, just as HashMap does
+        hash ^= hash >>> 16;
+
+        return stripes[hash & stripeMask];
+    }
+
+    private static final class Stripe<K, V> {
+        private final LinkedHashMap<K, V> entries;
+
+        Stripe(int maximumSize) {
+            this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        @Nullable
+        synchronized V get(K key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(K key, V value) {
+            entries.put(key, value);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
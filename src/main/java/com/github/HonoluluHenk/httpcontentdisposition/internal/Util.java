@@ -1,8 +1,6 @@
 package com.github.HonoluluHenk.httpcontentdisposition.internal;
 
-import java.util.Arrays;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.io.IOException;
 
 public final class Util {
     private Util() {
@@ -23,14 +21,33 @@ public final class Util {
         return false;
     }
 
-    public static String trimToEmpty(String input) {
-        return input == null ? "" : input.trim();
+    /**
+     * The number of chars of value in decimal, e.g. as written by {@link StringBuilder#append(long)}.
+     */
+    public static int decimalLength(long value) {
+        assert value >= 0 : "Input must not be negative but was: " + value;
+        int result = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            result++;
+        }
+        return result;
     }
 
-    @SafeVarargs
-    public static <T> Set<T> setOf(T... t) {
-        Set<T> set = new LinkedHashSet<>(Arrays.asList(t));
+    /**
+     * Appends value in decimal, same as {@link StringBuilder#append(long)} but for any {@link Appendable}.
+     */
+    public static void appendDecimal(long value, Appendable out) throws IOException {
+        assert value >= 0 : "Input must not be negative but was: " + value;
+        long divisor = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
 
-        return set;
+    public static String trimToEmpty(String input) {
+        return input == null ? "" : input.trim();
     }
 }
@@ -0,0 +1,83 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.function.IntPredicate;
+
+/**
+ * A set of US-ASCII characters, stored as a 128 bit mask.
+ * <p>
+ * The mask gets computed once from a (slow) rule definition, lookups are then a single bit test.
+ * Code points outside US-ASCII (including negative values) are rejected with one comparison.
+ */
+@Immutable
+final class AsciiCharacterTable {
+    /**
+     * Bits for the characters 0 - 63.
+     */
+    private final long low;
+    /**
+     * Bits for the characters 64 - 127.
+     */
+    private final long high;
+
+    private AsciiCharacterTable(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Evaluates definition for every US-ASCII character.
+     */
+    static AsciiCharacterTable of(IntPredicate definition) {
+        long low = 0;
+        long high = 0;
+        for (int c = 0; c < 64; c++) {
+            if (definition.test(c)) {
+                low |= 1L << c;
+            }
+            if (definition.test(c + 64)) {
+                high |= 1L << c;
+            }
+        }
+
+        return new AsciiCharacterTable(low, high);
+    }
+
+    boolean contains(int codePoint) {
+        if ((codePoint >>> 7) != 0) {
+            return false;
+        }
+
+        // shifting a long only uses the lowest 6 bits of the shift distance
+        long mask = codePoint < 64 ? low : high;
+
+        return (mask & (1L << codePoint)) != 0;
+    }
+
+    /**
+     * Length of the leading run of members in input, i.e.: the index of the first char not contained.
+     * <p>
+     * The tight loop for whole strings: the masks are held in locals and there is no code point decoding,
+     * surrogates are never US-ASCII anyways.
+     */
+    int span(CharSequence input) {
+        long low = this.low;
+        long high = this.high;
+        int length = input.length();
+
+        int i = 0;
+        while (i < length) {
+            char c = input.charAt(i);
+            if (c >= 128) {
+                break;
+            }
+            long mask = c < 64 ? low : high;
+            if ((mask & (1L << c)) == 0) {
+                break;
+            }
+            i++;
+        }
+
+        return i;
+    }
+}
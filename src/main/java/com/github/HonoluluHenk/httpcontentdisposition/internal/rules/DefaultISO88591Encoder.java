@@ -7,17 +7,69 @@ import javax.annotation.concurrent.ThreadSafe;
 import static com.github.HonoluluHenk.httpcontentdisposition.internal.Util.trimToEmpty;
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+/**
+ * Trims the input and replaces every code point outside ISO-8859-1 by '?'.
+ * <p>
+ * Same result as a round trip through {@code String.getBytes(ISO_8859_1)},
+ * i.e.: a surrogate pair becomes one '?', just as a lone surrogate does.
+ * But done in a single pass and without any copy if the (trimmed) input is ISO-8859-1 already.
+ */
 @ThreadSafe
 public class DefaultISO88591Encoder implements ISO88591Encoder {
 
     private static final long serialVersionUID = -1059462257810038990L;
 
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+
+    /**
+     * Same replacement the JDK uses for characters that cannot be encoded in ISO-8859-1.
+     */
+    private static final byte REPLACEMENT = '?';
+
+    /**
+     * @return the (trimmed) input itself if it contains no code point outside ISO-8859-1.
+     */
     @Override
     public String encode(@Nullable String input) {
         String clean = trimToEmpty(input);
 
-        String encoded = new String(clean.getBytes(ISO_8859_1), ISO_8859_1);
+        int latin1Length = RFC_2616_CHARACTER_RULES.octetPrefixLength(clean);
+        if (latin1Length == clean.length()) {
+            return clean;
+        }
+
+        // ISO-8859-1 octets: the String constructor only needs to copy them
+        byte[] octets = new byte[clean.length()];
+        int length = clean.length();
+        // the prefix is known to be ISO-8859-1 already
+        for (int i = 0; i < latin1Length; i++) {
+            octets[i] = (byte) clean.charAt(i);
+        }
+        int count = latin1Length;
+        for (int offset = latin1Length; offset < length; count++) {
+            char c = clean.charAt(offset);
+            if (c <= 0xFF) {
+                octets[count] = (byte) c;
+                offset++;
+            } else {
+                octets[count] = REPLACEMENT;
+                offset += Character.charCount(clean.codePointAt(offset));
+            }
+        }
+
+        return new String(octets, 0, count, ISO_8859_1);
+    }
 
-        return encoded;
+    /**
+     * Stateless: all instances are equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
     }
 }
@@ -9,6 +9,9 @@ import static com.github.HonoluluHenk.httpcontentdisposition.internal.Util.isOne
 public class RFC2231CharacterRules {
     public static final RFC2231CharacterRules INSTANCE = new RFC2231CharacterRules();
 
+    private static final AsciiCharacterTable ATTRIBUTE_CHARS =
+            AsciiCharacterTable.of(RFC2231CharacterRules::isAttributeCharDefinition);
+
     public static RFC2231CharacterRules getInstance() {
         return INSTANCE;
     }
@@ -18,6 +21,10 @@ public class RFC2231CharacterRules {
      * "*", "'", "%", or tspecials>
      */
     public boolean isAttributeChar(int codePoint) {
+        return ATTRIBUTE_CHARS.contains(codePoint);
+    }
+
+    private static boolean isAttributeCharDefinition(int codePoint) {
         return isCHAR(codePoint)
                 && !isSPACE(codePoint)
                 && !isCTL(codePoint)
@@ -25,28 +32,28 @@ public class RFC2231CharacterRules {
                 && !isTspecials(codePoint);
     }
 
-    private boolean isAttributeCharForbidden(int codePoint) {
+    private static boolean isAttributeCharForbidden(int codePoint) {
         return isOneOf(codePoint, '*', '\'', '%');
     }
 
     /**
      * RFC822: CHAR = <any ASCII character> ; (ASCII: 0-127)
      */
-    private boolean isCHAR(int codePoint) {
+    private static boolean isCHAR(int codePoint) {
         return isBetween(codePoint, 0, 127);
     }
 
     /**
      * RFC822: CTL <any ASCII control character and DEL> ; (ASCII char 0-31 and 127)
      */
-    private boolean isCTL(int codePoint) {
+    private static boolean isCTL(int codePoint) {
         return isBetween(codePoint, 0, 31) || codePoint == 127;
     }
 
     /**
      * RFC822: SPACE = <ASCII SP, space> : (ASCII char 32)
      */
-    private boolean isSPACE(int codePoint) {
+    private static boolean isSPACE(int codePoint) {
         return codePoint == 32;
     }
 
@@ -58,7 +65,7 @@ public class RFC2231CharacterRules {
      * ; Must be in quoted-string,
      * ; to use within parameter values
      */
-    private boolean isTspecials(int codePoint) {
+    private static boolean isTspecials(int codePoint) {
         // isCHAR implies values 0..127 and thus casting to char should produce no overflow
         return isCHAR(codePoint)
                 && isOneOf(codePoint,
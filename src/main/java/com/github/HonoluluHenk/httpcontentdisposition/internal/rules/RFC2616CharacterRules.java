@@ -2,10 +2,9 @@ package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.Set;
 
 import static com.github.HonoluluHenk.httpcontentdisposition.internal.Util.isBetween;
-import static com.github.HonoluluHenk.httpcontentdisposition.internal.Util.setOf;
+import static com.github.HonoluluHenk.httpcontentdisposition.internal.Util.isOneOf;
 
 @ThreadSafe
 public class RFC2616CharacterRules {
@@ -22,12 +21,11 @@ public class RFC2616CharacterRules {
         return INSTANCE;
     }
 
-    private static final Set<Character> SEPARATOR_CHARS = setOf(
-            '(', ')', '<', '>', '@',
-            ',', ';', ':', '\\', '\"',
-            '/', '[', ']', '?', '=',
-            '{', '}', ' ', '\t'
-    );
+    private static final AsciiCharacterTable SEPARATOR_CHARS =
+            AsciiCharacterTable.of(RFC2616CharacterRules::isSeparatorDefinition);
+
+    private static final AsciiCharacterTable TOKEN_CHARS =
+            AsciiCharacterTable.of(RFC2616CharacterRules::isTokenCharDefinition);
 
     /**
      * &lt;any 8-bit sequence of data&gt;
@@ -36,6 +34,33 @@ public class RFC2616CharacterRules {
         return isBetween(codePoint, 0, 255);
     }
 
+    /**
+     * Length of the leading run of OCTETs (i.e.: ISO-8859-1 chars) in input.
+     * <p>
+     * Surrogates are never OCTETs, so this works on chars and does not decode code points.
+     * Chars are OR-ed together eight at a time, leaving one branch per eight chars in the common (all OCTET) case.
+     */
+    public int octetPrefixLength(CharSequence input) {
+        int length = input.length();
+
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            int bits = input.charAt(i) | input.charAt(i + 1) | input.charAt(i + 2) | input.charAt(i + 3)
+                    | input.charAt(i + 4) | input.charAt(i + 5) | input.charAt(i + 6) | input.charAt(i + 7);
+            if (bits > 0xFF) {
+                // the culprit is somewhere in these eight
+                break;
+            }
+        }
+        for (; i < length; i++) {
+            if (input.charAt(i) > 0xFF) {
+                break;
+            }
+        }
+
+        return i;
+    }
+
     /**
      * &lt;any US-ASCII character (octets 0 - 127)&gt;
      */
@@ -58,19 +83,27 @@ public class RFC2616CharacterRules {
             return false;
         }
 
-        boolean result = input.codePoints()
-                .allMatch(this::isTokenChar);
+        return tokenPrefixLength(input) == input.length();
+    }
 
-        return result;
+    /**
+     * Length of the leading run of token chars (as defined in {@link #isToken(String)}) in input.
+     * <p>
+     * A non-empty input is a token if this returns its length.
+     */
+    public int tokenPrefixLength(CharSequence input) {
+        return TOKEN_CHARS.span(input);
     }
 
     /**
      * One character as defined in {@link #isToken(String)}.
      */
     public boolean isTokenChar(int codePoint) {
-        boolean result = isCHAR(codePoint) && !isCTL(codePoint) && !isSeparator(codePoint);
+        return TOKEN_CHARS.contains(codePoint);
+    }
 
-        return result;
+    private static boolean isTokenCharDefinition(int codePoint) {
+        return INSTANCE.isCHAR(codePoint) && !INSTANCE.isCTL(codePoint) && !isSeparatorDefinition(codePoint);
     }
 
     /**
@@ -81,12 +114,15 @@ public class RFC2616CharacterRules {
      * | "{" | "}" | SP | HT
      */
     public boolean isSeparator(int codePoint) {
-        if (!isOCTET(codePoint)) {
-            return false;
-        }
+        return SEPARATOR_CHARS.contains(codePoint);
+    }
 
-        char c = (char) codePoint;
-        return SEPARATOR_CHARS.contains(c);
+    private static boolean isSeparatorDefinition(int codePoint) {
+        return isOneOf(codePoint,
+                '(', ')', '<', '>', '@',
+                ',', ';', ':', '\\', '\"',
+                '/', '[', ']', '?', '=',
+                '{', '}', ' ', '\t');
     }
 
 //    /**
@@ -3,7 +3,6 @@ package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
 import com.github.HonoluluHenk.httpcontentdisposition.internal.Util;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.Set;
 
 /**
  * Check if characters/character-sequences follow specific rules defined in <a href="https://tools.ietf.org/html/rfc5987#section-3.2">RFC5982, Section 3.2</a>
@@ -26,10 +25,8 @@ public class RFC5987CharacterRules {
                    / "^" / "_" / "`" / "|" / "~"
                    ; token except ( "*" / "'" / "%" )
 	 */
-    private static final Set<Character> ATTR_CHAR_SPECIALS = Util.setOf(
-            '!', '#', '$', '&', '+', '-', '.',
-            '^', '_', '`', '|', '~'
-    );
+    private static final AsciiCharacterTable ATTR_CHARS =
+            AsciiCharacterTable.of(RFC5987CharacterRules::isAttrCharDefinition);
 
 
     /**
@@ -39,21 +36,18 @@ public class RFC5987CharacterRules {
      * ; token except ( "*" / "'" / "%" )
      */
     public boolean isAttrChar(int codePoint) {
-        boolean result = RFC5234CharacterRules.INSTANCE.isALPHA(codePoint)
+        return ATTR_CHARS.contains(codePoint);
+    }
+
+    private static boolean isAttrCharDefinition(int codePoint) {
+        return RFC5234CharacterRules.INSTANCE.isALPHA(codePoint)
                 || RFC5234CharacterRules.INSTANCE.isDIGIT(codePoint)
                 || isAttrSpecialChar(codePoint);
-
-        return result;
     }
 
-    private boolean isAttrSpecialChar(int codepoint) {
-        if (!RFC5234CharacterRules.INSTANCE.isOCTET(codepoint)) {
-            return false;
-        }
-
-        // simply casting only works for octets, hence the check above
-        char character = (char) codepoint;
-
-        return ATTR_CHAR_SPECIALS.contains(character);
+    private static boolean isAttrSpecialChar(int codePoint) {
+        return Util.isOneOf(codePoint,
+                '!', '#', '$', '&', '+', '-', '.',
+                '^', '_', '`', '|', '~');
     }
 }
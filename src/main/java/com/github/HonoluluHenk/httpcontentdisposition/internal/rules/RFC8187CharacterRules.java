@@ -9,35 +9,42 @@ public class RFC8187CharacterRules {
 
     public static final RFC8187CharacterRules INSTANCE = new RFC8187CharacterRules();
 
+    private static final AsciiCharacterTable ATTR_CHARS =
+            AsciiCharacterTable.of(RFC8187CharacterRules::isAttrCharDefinition);
+
     public static RFC8187CharacterRules getInstance() {
         return INSTANCE;
     }
 
     public boolean isAttrChar(int codePoint) {
+        return ATTR_CHARS.contains(codePoint);
+    }
+
+    private static boolean isAttrCharDefinition(int codePoint) {
         return isALPHA(codePoint)
                 || isDIGIT(codePoint)
                 || isAttrCharSpecial(codePoint);
     }
 
-    private boolean isAttrCharSpecial(int codePoint) {
+    private static boolean isAttrCharSpecial(int codePoint) {
         return Util.isOneOf(codePoint,
                 '!', '#', '$', '&', '+', '-', '.',
                 '^', '_', '`', '|', '~');
     }
 
-    private boolean isALPHA(int codePoint) {
+    private static boolean isALPHA(int codePoint) {
         return isUpperALPHA(codePoint) || isLowerAlpha(codePoint);
     }
 
-    private boolean isUpperALPHA(int codePoint) {
+    private static boolean isUpperALPHA(int codePoint) {
         return Util.isBetween(codePoint, 'A', 'Z');
     }
 
-    private boolean isLowerAlpha(int codePoint) {
+    private static boolean isLowerAlpha(int codePoint) {
         return Util.isBetween(codePoint, 'a', 'z');
     }
 
-    private boolean isDIGIT(int codePoint) {
+    private static boolean isDIGIT(int codePoint) {
         return Util.isBetween(codePoint, '0', '9');
     }
 
@@ -0,0 +1,228 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes an "ext-value" as described in
+ * <a href="https://tools.ietf.org/html/rfc8187#section-3.2">RFC8187, Section 3.2</a>.
+ * <p>
+ * ext-value     = charset  "'" [ language ] "'" value-chars
+ * <p>
+ * Besides UTF-8 (required by RFC 8187), ISO-8859-1 is supported for compatibility with
+ * <a href="https://tools.ietf.org/html/rfc5987">RFC 5987</a>.
+ * Ext-values in other charsets are valid, but cannot be decoded.
+ * <p>
+ * All methods work on a range of a {@link CharSequence} so the caller does not need to copy the ext-value first.
+ */
+@ThreadSafe
+public class RFC8187Decoder {
+    private static final RFC8187CharacterRules RFC_8187_CHARACTER_RULES = RFC8187CharacterRules.getInstance();
+
+    private static final String UTF_8 = "UTF-8";
+    private static final String ISO_8859_1 = "ISO-8859-1";
+
+    /**
+     * @return true if input[start, end) is a syntactically valid ext-value.
+     * The charset might still be unsupported, see: {@link #isSupportedCharset(CharSequence, int, int)}.
+     */
+    public boolean isValidExtValue(CharSequence input, int start, int end) {
+        int charsetEnd = indexOf(input, '\'', start, end);
+        if (charsetEnd <= start) {
+            return false;
+        }
+        for (int i = start; i < charsetEnd; i++) {
+            if (!isMimeCharsetChar(input.charAt(i))) {
+                return false;
+            }
+        }
+
+        int languageEnd = indexOf(input, '\'', charsetEnd + 1, end);
+        if (languageEnd < 0) {
+            return false;
+        }
+
+        return isValidValueChars(input, languageEnd + 1, end);
+    }
+
+    /**
+     * @return true if the charset of a {@link #isValidExtValue(CharSequence, int, int) valid} ext-value can be decoded.
+     */
+    public boolean isSupportedCharset(CharSequence input, int start, int end) {
+        return parseCharset(input, start, indexOf(input, '\'', start, end)) != null;
+    }
+
+    /**
+     * value-chars only (without charset and language),
+     * e.g. the 2nd, 3rd, ... segment of an <a href="https://tools.ietf.org/html/rfc2231#section-3">RFC 2231</a>
+     * continuation.
+     *
+     * @return true if input[start, end) are syntactically valid value-chars.
+     */
+    public boolean isValidValueChars(CharSequence input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= end || hexValue(input.charAt(i + 1)) < 0 || hexValue(input.charAt(i + 2)) < 0) {
+                    return false;
+                }
+                i += 2;
+            } else if (!RFC_8187_CHARACTER_RULES.isAttrChar(c)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes the value-chars of a {@link #isValidExtValue(CharSequence, int, int) valid} ext-value.
+     *
+     * @throws IllegalArgumentException if the charset is not {@link #isSupportedCharset(CharSequence, int, int) supported}.
+     */
+    public String decodeValue(CharSequence input, int start, int end) {
+        Charset charset = decodeCharset(input, start, end);
+        if (charset == null) {
+            throw new IllegalArgumentException("Unsupported charset in ext-value: " + input.subSequence(start, end));
+        }
+        int valueStart = valueCharsStart(input, start, end);
+
+        byte[] octets = new byte[octetCount(input, valueStart, end)];
+        decodeOctets(input, valueStart, end, octets, 0);
+
+        return new String(octets, charset);
+    }
+
+    /**
+     * The charset of a {@link #isValidExtValue(CharSequence, int, int) valid} ext-value.
+     *
+     * @return null if not supported.
+     */
+    @Nullable
+    public Charset decodeCharset(CharSequence input, int start, int end) {
+        return parseCharset(input, start, indexOf(input, '\'', start, end));
+    }
+
+    /**
+     * Where the value-chars of a {@link #isValidExtValue(CharSequence, int, int) valid} ext-value start.
+     */
+    public int valueCharsStart(CharSequence input, int start, int end) {
+        int charsetEnd = indexOf(input, '\'', start, end);
+
+        return indexOf(input, '\'', charsetEnd + 1, end) + 1;
+    }
+
+    /**
+     * The number of octets {@link #isValidValueChars(CharSequence, int, int) valid} value-chars decode to.
+     */
+    public int octetCount(CharSequence input, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == '%') {
+                i += 2;
+            }
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes the octets of {@link #isValidValueChars(CharSequence, int, int) valid} value-chars to out.
+     *
+     * @return pos plus the {@link #octetCount(CharSequence, int, int) number of octets} written.
+     */
+    public int decodeOctets(CharSequence input, int start, int end, byte[] out, int pos) {
+        int result = pos;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '%') {
+                out[result++] = (byte) ((hexValue(input.charAt(i + 1)) << 4) | hexValue(input.charAt(i + 2)));
+                i += 2;
+            } else {
+                out[result++] = (byte) c;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The (unvalidated) language of a {@link #isValidExtValue(CharSequence, int, int) valid} ext-value.
+     *
+     * @return empty string if no language was given.
+     */
+    public String decodeLanguage(CharSequence input, int start, int end) {
+        int charsetEnd = indexOf(input, '\'', start, end);
+        int languageEnd = indexOf(input, '\'', charsetEnd + 1, end);
+
+        return input.subSequence(charsetEnd + 1, languageEnd).toString();
+    }
+
+    @Nullable
+    private Charset parseCharset(CharSequence input, int start, int end) {
+        if (regionMatchesIgnoreCase(input, start, end, UTF_8)) {
+            return StandardCharsets.UTF_8;
+        }
+        if (regionMatchesIgnoreCase(input, start, end, ISO_8859_1)) {
+            return StandardCharsets.ISO_8859_1;
+        }
+
+        return null;
+    }
+
+    /**
+     * mime-charsetc = ALPHA / DIGIT / "!" / "#" / "$" / "%" / "&amp;" / "+" / "-" / "^" / "_" / "`" / "{" / "}" / "~"
+     */
+    private static boolean isMimeCharsetChar(char c) {
+        if (c == '%' || c == '{' || c == '}') {
+            return true;
+        }
+
+        return c != '.' && c != '|' && RFC_8187_CHARACTER_RULES.isAttrChar(c);
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence input, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < expected.length(); i++) {
+            char c = input.charAt(start + i);
+            // expected is upper case US-ASCII
+            char upper = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+            if (upper != expected.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(CharSequence input, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+
+        return -1;
+    }
+}
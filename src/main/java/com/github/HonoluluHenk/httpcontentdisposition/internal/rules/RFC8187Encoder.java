@@ -3,18 +3,22 @@ package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
 import edu.umd.cs.findbugs.annotations.Nullable;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.io.CharArrayWriter;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Locale;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Encodes a string so that is a valid "pct-encoded" as described in
  * <a href="https://tools.ietf.org/html/rfc8187#section-3.2">RFC58187, Section 3.2
  * (Indicating Character Encoding and Language for HTTP Header Field Parameters)</a>.
  * <p>
+ * The UTF-8 conversion is done inline from the code points: the only allocations per call
+ * are the result (and the language tag if a locale is given).
+ * The {@code encodeExtValueTo} variants write into a caller supplied buffer and do not even allocate the result.
+ * <p>
+ * Language tags get cached per locale (shared by all instances), see: {@link #parseLanguageTag(Locale)}.
  */
 @ThreadSafe
 public class RFC8187Encoder {
@@ -27,83 +31,326 @@ public class RFC8187Encoder {
      */
     private static final int PCT_ENCODED_LENGTH = 3;
 
+    /**
+     * The longest pct-encoding of one code point: 4 UTF-8 octets.
+     */
+    public static final int MAX_ENCODED_CODE_POINT_LENGTH = 4 * PCT_ENCODED_LENGTH;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * charset "'" (the language tag and another "'" follow).
+     */
+    public static final String CHARSET_PREFIX = "UTF-8'";
+
+    /**
+     * Java replaces malformed input (i.e.: lone surrogates) with '?' when encoding to UTF-8.
+     */
+    private static final int MALFORMED_REPLACEMENT = '?';
+
+    /**
+     * Applications use a handful of locales: beyond this, the language tags of further locales are not cached.
+     */
+    private static final int MAX_CACHED_LANGUAGE_TAGS = 256;
+
+    /**
+     * Locale to its (stripped) language tag.
+     * Building the tag goes through the JDK locale parser and builder which is surprisingly expensive.
+     */
+    private static final ConcurrentMap<Locale, String> LANGUAGE_TAGS = new ConcurrentHashMap<>();
+
     /**
      * pct-encode a string according to <a href="https://tools.ietf.org/html/rfc8187#section-3.2">RFC8187, Section 3.2</a>.
      */
     public Encoded encodeExtValue(String input, @Nullable Locale locale) {
         String languageTag = parseLanguageTag(locale);
-        Encoded pctEncoded = pctEncode(input);
-        String valueChars = pctEncoded.getValue();
+        int valueCharsLength = encodedLength(input);
 
-        String value = String.format("UTF-8'%s'%s", languageTag, valueChars);
+        StringBuilder value = new StringBuilder(CHARSET_PREFIX.length() + languageTag.length() + 1 + valueCharsLength);
+        appendExtValuePrefix(languageTag, value);
+        boolean isEncoded = pctEncode(input, value);
 
-        return new Encoded(value, pctEncoded.isEncoded());
+        return new Encoded(value.toString(), isEncoded);
     }
 
     public Encoded encodeExtValue(String input) {
         return encodeExtValue(input, null);
     }
 
-    private String parseLanguageTag(@Nullable Locale locale) {
+    /**
+     * Same as {@link #encodeExtValue(String, Locale)} but appends the ext-value to out.
+     *
+     * @return true if the input needed pct-encoding, see: {@link Encoded#isEncoded()}.
+     */
+    public boolean encodeExtValueTo(CharSequence input, @Nullable Locale locale, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            return encodeExtValueTo(input, locale, (StringBuilder) out);
+        }
+
+        out.append(CHARSET_PREFIX)
+                .append(parseLanguageTag(locale))
+                .append('\'');
+
+        return pctEncodeTo(input, out);
+    }
+
+    /**
+     * Same as {@link #encodeExtValueTo(CharSequence, Locale, Appendable)} without the checked exception.
+     */
+    public boolean encodeExtValueTo(CharSequence input, @Nullable Locale locale, StringBuilder out) {
+        String languageTag = parseLanguageTag(locale);
+        out.ensureCapacity(out.length() + CHARSET_PREFIX.length() + languageTag.length() + 1 + input.length());
+        appendExtValuePrefix(languageTag, out);
+
+        return pctEncode(input, out);
+    }
+
+    private void appendExtValuePrefix(String languageTag, StringBuilder out) {
+        out.append(CHARSET_PREFIX)
+                .append(languageTag)
+                .append('\'');
+    }
+
+    /**
+     * The RFC 5646 language tag used in the ext-value, stripped of variants and extensions.
+     *
+     * @return empty string if locale is null.
+     */
+    public String parseLanguageTag(@Nullable Locale locale) {
         if (locale == null) {
             return "";
         }
 
+        String cached = LANGUAGE_TAGS.get(locale);
+        if (cached != null) {
+            return cached;
+        }
+
+        String result = toLanguageTag(locale);
+        // racy size check: might overshoot by a few entries, does not matter
+        if (LANGUAGE_TAGS.size() < MAX_CACHED_LANGUAGE_TAGS) {
+            LANGUAGE_TAGS.putIfAbsent(locale, result);
+        }
+
+        return result;
+    }
+
+    private static String toLanguageTag(Locale locale) {
         // main purpose: strip variants and extensions
         Locale clean = new Locale(locale.getLanguage(), locale.getCountry());
 
         return clean.toLanguageTag();
     }
 
-    private Encoded pctEncode(String input) {
-        int length = input.length();
+    /**
+     * Appends the value-chars of input to out: attr-chars as they are, everything else pct-encoded.
+     *
+     * @return true if at least one code point needed pct-encoding.
+     */
+    public boolean pctEncode(CharSequence input, StringBuilder out) {
+        try {
+            return pctEncodeTo(input, out);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        try (CharArrayWriter writer = new CharArrayWriter(calcEncodedLength(length))) {
+    /**
+     * Same as {@link #pctEncode(CharSequence, StringBuilder)}, but also records where to split the appended value into
+     * segments of at most maxSegmentLength chars (for RFC 2231 continuations).
+     * <p>
+     * Splits only fall between code points, never inside the pct-encoded UTF-8 octets of one.
+     *
+     * @param maxSegmentLength at least {@link #MAX_ENCODED_CODE_POINT_LENGTH}
+     * @param boundaries       receives the start offsets (in out) of all segments but the first.
+     * @return true if at least one code point needed pct-encoding.
+     */
+    public boolean pctEncode(CharSequence input, StringBuilder out, int maxSegmentLength, SegmentBoundaries boundaries) {
+        if (maxSegmentLength < MAX_ENCODED_CODE_POINT_LENGTH) {
+            throw new IllegalArgumentException(
+                    "maxSegmentLength must be at least " + MAX_ENCODED_CODE_POINT_LENGTH + " but was: " + maxSegmentLength);
+        }
 
-            boolean isEncoded = false;
+        try {
+            return pctEncodeTo(input, out, maxSegmentLength, boundaries);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            for (int offset = 0; offset < length; ) {
-                int codePoint = input.codePointAt(offset);
-                int charCount = Character.charCount(codePoint);
+    /**
+     * Appends one code point to out: as it is if it is an attr-char, pct-encoded UTF-8 octets otherwise.
+     *
+     * @return true if the code point needed pct-encoding.
+     */
+    public boolean pctEncode(int codePoint, StringBuilder out) {
+        try {
+            return pctEncodeTo(codePoint, out);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
 
-                if (isAllowed(codePoint)) {
-                    writer.append(input.substring(offset, offset + charCount));
-                } else {
-                    writer.append(pctEncode(codePoint));
-                    isEncoded = true;
-                }
+    private boolean pctEncodeTo(CharSequence input, Appendable out) throws IOException {
+        int length = input.length();
+        boolean isEncoded = false;
+        // runs of attr-chars go out unchanged: append them in bulk
+        int runStart = 0;
 
-                offset += charCount;
+        for (int offset = 0; offset < length; ) {
+            int codePoint = Character.codePointAt(input, offset);
+            int charCount = Character.charCount(codePoint);
+
+            if (!isAllowed(codePoint)) {
+                out.append(input, runStart, offset);
+                pctEncodeTo(codePoint, out);
+                isEncoded = true;
+                runStart = offset + charCount;
             }
 
-            return new Encoded(writer.toString(), isEncoded);
+            offset += charCount;
         }
+        out.append(input, runStart, length);
+
+        return isEncoded;
     }
 
-    private String pctEncode(int codePoint) {
-        ByteBuffer bytes = UTF_8.encode(CharBuffer.wrap(Character.toChars(codePoint)));
+    private boolean pctEncodeTo(
+            CharSequence input,
+            StringBuilder out,
+            int maxSegmentLength,
+            SegmentBoundaries boundaries
+    ) throws IOException {
+        int length = input.length();
+        boolean isEncoded = false;
+        int segmentStart = out.length();
+
+        for (int offset = 0; offset < length; ) {
+            int codePoint = Character.codePointAt(input, offset);
+
+            int codePointStart = out.length();
+            isEncoded |= pctEncodeTo(codePoint, out);
+            segmentStart = nextSegmentStart(out, segmentStart, codePointStart, maxSegmentLength, boundaries);
 
-        StringBuilder hex = new StringBuilder(PCT_ENCODED_LENGTH * bytes.limit());
-        for (int i = 0; i < bytes.limit(); i++) {
-            hex.append('%').append(hexString(bytes.get(i)));
+            offset += Character.charCount(codePoint);
         }
 
-        return hex.toString().toUpperCase(Locale.US);
+        return isEncoded;
+    }
+
+    /**
+     * Checks the segment after the code point starting at codePointStart got appended:
+     * if it overflows, a new segment starts with that code point.
+     *
+     * @return start of the current segment
+     */
+    private int nextSegmentStart(
+            StringBuilder out,
+            int segmentStart,
+            int codePointStart,
+            int maxSegmentLength,
+            SegmentBoundaries boundaries
+    ) {
+        if (out.length() - segmentStart <= maxSegmentLength) {
+            return segmentStart;
+        }
+
+        boundaries.add(codePointStart);
+
+        return codePointStart;
+    }
+
+    /**
+     * Same as {@link #pctEncode(int, StringBuilder)} but appends to any {@link Appendable}.
+     */
+    public boolean pctEncodeTo(int codePoint, Appendable out) throws IOException {
+        if (isAllowed(codePoint)) {
+            // allowed characters are all US-ASCII
+            out.append((char) codePoint);
+            return false;
+        }
+
+        if (codePoint < 0x80) {
+            pctEncodeOctet(codePoint, out);
+        } else if (codePoint < 0x800) {
+            pctEncodeOctet(0xC0 | (codePoint >>> 6), out);
+            pctEncodeOctet(0x80 | (codePoint & 0x3F), out);
+        } else if (codePoint < 0x10000) {
+            if (Character.isSurrogate((char) codePoint)) {
+                pctEncodeOctet(MALFORMED_REPLACEMENT, out);
+            } else {
+                pctEncodeOctet(0xE0 | (codePoint >>> 12), out);
+                pctEncodeOctet(0x80 | ((codePoint >>> 6) & 0x3F), out);
+                pctEncodeOctet(0x80 | (codePoint & 0x3F), out);
+            }
+        } else {
+            pctEncodeOctet(0xF0 | (codePoint >>> 18), out);
+            pctEncodeOctet(0x80 | ((codePoint >>> 12) & 0x3F), out);
+            pctEncodeOctet(0x80 | ((codePoint >>> 6) & 0x3F), out);
+            pctEncodeOctet(0x80 | (codePoint & 0x3F), out);
+        }
+
+        return true;
+    }
+
+    private void pctEncodeOctet(int octet, Appendable out) throws IOException {
+        out.append('%')
+                .append(HEX_DIGITS[octet >>> 4])
+                .append(HEX_DIGITS[octet & 0x0F]);
+    }
+
+    /**
+     * The number of chars {@link #pctEncode(int, StringBuilder)} appends for codePoint.
+     */
+    public int encodedLength(int codePoint) {
+        return isAllowed(codePoint)
+                ? 1
+                : PCT_ENCODED_LENGTH * utf8Length(codePoint);
     }
 
     private boolean isAllowed(int codePoint) {
         return RFC_8187_CHARACTER_RULES.isAttrChar(codePoint);
     }
 
-    private int calcEncodedLength(int numChars) {
-        return Math.multiplyExact(numChars, PCT_ENCODED_LENGTH);
+    /**
+     * The exact length of {@link #encodeExtValue(String, Locale)}, without encoding (nor allocating).
+     */
+    public int encodedLength(CharSequence input, @Nullable Locale locale) {
+        return CHARSET_PREFIX.length() + parseLanguageTag(locale).length() + 1 + encodedLength(input);
+    }
+
+    /**
+     * The exact number of characters {@link #pctEncode(CharSequence, StringBuilder)} will produce.
+     */
+    public int encodedLength(CharSequence input) {
+        int length = input.length();
+        int result = 0;
+
+        for (int offset = 0; offset < length; ) {
+            int codePoint = Character.codePointAt(input, offset);
+
+            result = Math.addExact(result, encodedLength(codePoint));
+
+            offset += Character.charCount(codePoint);
+        }
+
+        return result;
     }
 
-    private String hexString(byte aByte) {
-        // implicit conversion to int might create negative numbers (-127 upto 128)
-        // but we need the unsigned value (0 - 255) for toHexString to work
-        int unsignedInt = aByte & 0xff;
-        return String.format("%02X", unsignedInt);
+    private int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        if (codePoint < 0x10000) {
+            return Character.isSurrogate((char) codePoint) ? 1 : 3;
+        }
+        return 4;
     }
 
 }
@@ -0,0 +1,46 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * Where to split a pct-encoded value into RFC 2231 continuations,
+ * see: {@link RFC8187Encoder#pctEncode(CharSequence, StringBuilder, int, SegmentBoundaries)}.
+ * <p>
+ * Holds the start offsets of the 2nd, 3rd, ... segment: empty if everything fits into one segment.
+ * Meant to be reused: {@link #clear()} keeps the allocated space.
+ */
+@NotThreadSafe
+public final class SegmentBoundaries {
+    private int[] offsets = new int[8];
+    private int size = 0;
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * The number of boundaries, i.e.: one less than the number of segments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The start offset of segment index + 1.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+
+        return offsets[index];
+    }
+
+    void add(int offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = offset;
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.StripedLruCache;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Memoizes the results of an expensive {@link IsoFallback} (e.g.: transliteration or display names from a database),
+ * keyed by the input filename.
+ * <p>
+ * The cache is bounded (least-recently-used eviction) and meant to be shared by all threads.
+ * Wrapping makes the delegate's results sticky: only wrap fallbacks whose result for a given input does not change
+ * (or where a stale result is acceptable).
+ * Do not wrap the default {@link EncodeIsoFallback}: it is cheaper than the cache lookup.
+ * <p>
+ * Serializing only keeps the delegate and the maximum size, the cached values are dropped.
+ */
+@ThreadSafe
+public final class CachingIsoFallback implements IsoFallback {
+    private static final long serialVersionUID = -6790157214431893264L;
+
+    private final IsoFallback delegate;
+    private final int maximumSize;
+    /**
+     * Optional: the delegate may return null.
+     */
+    private final transient StripedLruCache<String, Optional<String>> cache;
+    /**
+     * Kept in a field: a capturing lambda per call would allocate.
+     */
+    private final transient Function<String, Optional<String>> computation;
+
+    /**
+     * @param maximumSize the maximum number of cached filenames.
+     */
+    public CachingIsoFallback(IsoFallback delegate, int maximumSize) {
+        this.delegate = requireNonNull(delegate, "delegate must be given");
+        this.maximumSize = maximumSize;
+        this.cache = new StripedLruCache<>(maximumSize);
+        this.computation = input -> Optional.ofNullable(delegate.fallback(input));
+    }
+
+    @Nullable
+    @Override
+    public String fallback(String input) {
+        return cache.computeIfAbsent(input, computation)
+                .orElse(null);
+    }
+
+    @Override
+    public boolean needsEncoding() {
+        return delegate.needsEncoding();
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return delegate.isCacheable();
+    }
+
+    public IsoFallback getDelegate() {
+        return delegate;
+    }
+
+    public long getHitCount() {
+        return cache.hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * hits / (hits + misses), 0 if the cache was never used.
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * The number of currently cached filenames.
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getMaximumSize() {
+        return cache.maximumSize();
+    }
+
+    /**
+     * Drops all cached values (the hit/miss counters are kept).
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Deserialization: start with an empty cache.
+     */
+    private Object readResolve() {
+        return new CachingIsoFallback(delegate, maximumSize);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CachingIsoFallback other = (CachingIsoFallback) o;
+        return maximumSize == other.maximumSize
+                && delegate.equals(other.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * delegate.hashCode() + maximumSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CachingIsoFallback[delegate=" + delegate
+                + ", size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+    }
+}
@@ -30,4 +30,38 @@ public class EncodeIsoFallback implements IsoFallback {
     public String fallback(String input) {
         return encoder.encode(input);
     }
+
+    /**
+     * True if this is a plain ISO-8859-1 charset conversion by the {@link DefaultISO88591Encoder}.
+     * <p>
+     * Allows the header rendering to do the conversion on the fly.
+     */
+    public boolean isDefaultConversion() {
+        return encoder.getClass() == DefaultISO88591Encoder.class;
+    }
+
+    /**
+     * Subclasses might add state or depend on more than the input: they have to declare themselves cacheable.
+     */
+    @Override
+    public boolean isCacheable() {
+        return getClass() == EncodeIsoFallback.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        EncodeIsoFallback other = (EncodeIsoFallback) o;
+        return encoder.equals(other.encoder);
+    }
+
+    @Override
+    public int hashCode() {
+        return encoder.hashCode();
+    }
 }
@@ -12,4 +12,14 @@ public interface IsoFallback extends Serializable {
     default boolean needsEncoding() {
         return true;
     }
+
+    /**
+     * Declares that {@link #fallback(String)} only depends on its input (and on the state of this instance)
+     * and that {@link Object#equals(Object)}/{@link Object#hashCode()} reflect that state.
+     * <p>
+     * Only then may rendered header values be cached, see: {@link com.github.HonoluluHenk.httpcontentdisposition.HeaderValueCache}.
+     */
+    default boolean isCacheable() {
+        return false;
+    }
 }
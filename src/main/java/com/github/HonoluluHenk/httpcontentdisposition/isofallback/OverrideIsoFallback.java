@@ -2,6 +2,8 @@ package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 
+import java.util.Objects;
+
 public class OverrideIsoFallback implements IsoFallback {
     private static final long serialVersionUID = -5421954892971161340L;
 
@@ -34,4 +36,30 @@ public class OverrideIsoFallback implements IsoFallback {
     public boolean needsEncoding() {
         return needsEncoding;
     }
+
+    /**
+     * Subclasses might add state or depend on more than the input: they have to declare themselves cacheable.
+     */
+    @Override
+    public boolean isCacheable() {
+        return getClass() == OverrideIsoFallback.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OverrideIsoFallback other = (OverrideIsoFallback) o;
+        return needsEncoding == other.needsEncoding
+                && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, needsEncoding);
+    }
 }
@@ -0,0 +1,69 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Like {@link EncodeIsoFallback}, but transliterates common characters outside ISO-8859-1 first,
+ * e.g.: "Œuvre – Σ €" becomes "OEuvre - S EUR" instead of "?uvre ? ? ?".
+ * <p>
+ * Covered are Latin Extended (including decomposed accents), Greek, Cyrillic,
+ * typographic quotes/dashes/spaces and some symbols.
+ * Everything else still gets replaced by '?'.
+ * <p>
+ * The mappings are precomputed (see: TransliterationTableGenerator in the tests) and loaded once:
+ * no {@link java.text.Normalizer} at runtime.
+ */
+public class TransliteratingIsoFallback implements IsoFallback {
+    private static final long serialVersionUID = 4601830436329813537L;
+
+    private static final RFC2616CharacterRules RFC_2616_CHARACTER_RULES = RFC2616CharacterRules.getInstance();
+
+    @Nullable
+    @Override
+    public String fallback(String input) {
+        int latin1Length = RFC_2616_CHARACTER_RULES.octetPrefixLength(input);
+        int length = input.length();
+        if (latin1Length == length) {
+            return input;
+        }
+
+        TransliterationTable table = TransliterationTable.getInstance();
+        StringBuilder result = new StringBuilder(length + 16);
+        result.append(input, 0, latin1Length);
+
+        for (int i = latin1Length; i < length; i++) {
+            char c = input.charAt(i);
+            String replacement = c > 0xFF ? table.get(c) : null;
+            if (replacement == null) {
+                // Latin-1 or unmapped: left to the ISO encoding
+                result.append(c);
+            } else {
+                result.append(replacement);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Subclasses might add state or depend on more than the input: they have to declare themselves cacheable.
+     */
+    @Override
+    public boolean isCacheable() {
+        return getClass() == TransliteratingIsoFallback.class;
+    }
+
+    /**
+     * Stateless: all instances are equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The replacements used by {@link TransliteratingIsoFallback}, loaded once from the precomputed transliteration.txt.
+ * <p>
+ * All mapped characters are in the BMP: stored as sorted chars and their replacements.
+ * An index over the 256 pages (high byte) of the BMP narrows the binary search to one page,
+ * characters of pages without any mapping (e.g.: CJK) are rejected right away.
+ */
+@Immutable
+final class TransliterationTable {
+    private static final String RESOURCE = "transliteration.txt";
+
+    private static final int PAGE_COUNT = 256;
+
+    private final char[] keys;
+    private final String[] replacements;
+    /**
+     * The keys of page p are at [pageStarts[p], pageStarts[p + 1]).
+     */
+    private final int[] pageStarts;
+
+    private TransliterationTable(char[] keys, String[] replacements) {
+        this.keys = keys;
+        this.replacements = replacements;
+        this.pageStarts = new int[PAGE_COUNT + 1];
+
+        int index = 0;
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            pageStarts[page] = index;
+            while (index < keys.length && (keys[index] >>> 8) == page) {
+                index++;
+            }
+        }
+        pageStarts[PAGE_COUNT] = keys.length;
+    }
+
+    static TransliterationTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return the ISO-8859-1 replacement (possibly empty) or null if c is not mapped.
+     */
+    @Nullable
+    String get(char c) {
+        int page = c >>> 8;
+        int from = pageStarts[page];
+        int to = pageStarts[page + 1];
+        if (from == to) {
+            return null;
+        }
+
+        int index = Arrays.binarySearch(keys, from, to, c);
+
+        return index >= 0 ? replacements[index] : null;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    static TransliterationTable load() {
+        try (InputStream in = TransliterationTable.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Resource not found: " + RESOURCE);
+            }
+
+            return parse(new BufferedReader(new InputStreamReader(in, UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read: " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * Format: one "HHHH=replacement" line per char (hex, ascending), lines starting with '#' are comments.
+     */
+    static TransliterationTable parse(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty() && line.charAt(0) != '#') {
+                lines.add(line);
+            }
+        }
+
+        char[] keys = new char[lines.size()];
+        String[] replacements = new String[lines.size()];
+        for (int i = 0; i < keys.length; i++) {
+            String entry = lines.get(i);
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalStateException("Invalid transliteration entry: " + entry);
+            }
+            keys[i] = (char) Integer.parseInt(entry.substring(0, separator), 16);
+            replacements[i] = entry.substring(separator + 1);
+            if (i > 0 && keys[i] <= keys[i - 1]) {
+                throw new IllegalStateException("Transliteration entries not ascending at: " + entry);
+            }
+        }
+
+        return new TransliterationTable(keys, replacements);
+    }
+
+    private static final class Holder {
+        private static final TransliterationTable INSTANCE = load();
+    }
+}
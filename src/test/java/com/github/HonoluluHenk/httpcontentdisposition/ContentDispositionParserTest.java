@@ -0,0 +1,464 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.randomString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentDispositionParserTest {
+    private final ContentDispositionParser parser = new ContentDispositionParser();
+
+    @Nested
+    class DispositionTypeTest {
+        @ParameterizedTest
+        @CsvSource({
+                "attachment, ATTACHMENT",
+                "ATTACHMENT, ATTACHMENT",
+                "' inline ', INLINE",
+                "'inline; filename=foo', INLINE",
+        })
+        void parsesKnownTypes(String input, Disposition expected) {
+            ParsedContentDisposition actual = parser.parse(input);
+
+            assertThat(actual.getDisposition())
+                    .contains(expected);
+        }
+
+        @Test
+        void keepsUnknownTypes() {
+            ParsedContentDisposition actual = parser.parse("form-data; name=field");
+
+            assertThat(actual.getType())
+                    .isEqualTo("form-data");
+            assertThat(actual.getDisposition())
+                    .isEmpty();
+            assertThat(actual.getParameter("name"))
+                    .isEqualTo("field");
+        }
+    }
+
+    @Nested
+    class FilenameTest {
+        // no backslashes: they are not escaped by the generator, "\5" would be read as quoted-pair
+        private final String[] alphabet = {
+                "a", "Z", "0", ".", " ", "\"", "'", "%", "*", ";", "=", "ö", "ÿ", "€", "東", "😀",
+        };
+
+        @Test
+        void parsesTokenFilename() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=foo.html");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("foo.html");
+        }
+
+        @Test
+        void unquotesFilename() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=\"f\\\\oo \\\"bar\\\".html\"");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("f\\oo \"bar\".html");
+        }
+
+        @Test
+        void readsUnescapedBackslashesLiterally() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=\"C:\\\"; filename*=UTF-8''C%3A%5C");
+
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("C:\\");
+            assertThat(actual.getFilename())
+                    .isEqualTo("C:\\");
+        }
+
+        @Test
+        void readsOwnHeadersWithUnescapedBackslashes() {
+            String headerValue = HttpContentDisposition.builder()
+                    .filename("a\\\"b")
+                    .size(3)
+                    .build()
+                    .headerValue();
+
+            ParsedContentDisposition actual = parser.parse(headerValue);
+
+            assertThat(headerValue)
+                    .isEqualTo("attachment; filename=\"a\\\\\"b\"; size=3");
+            assertThat(actual.getFilename())
+                    .isEqualTo("a\\\"b");
+            assertThat(actual.getParameter(HeaderValue.SIZE))
+                    .isEqualTo("3");
+        }
+
+        @Test
+        void reachesExtFilenameAfterUnescapedBackslashes() {
+            ParsedContentDisposition actual = parser.parse(HttpContentDisposition.builder()
+                    .filename("a\\\"b€")
+                    .build()
+                    .headerValue());
+
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("a\\\"b?");
+            assertThat(actual.getFilename())
+                    .isEqualTo("a\\\"b€");
+        }
+
+        @Test
+        void readsTrailingBackslashBeforeClosingQuote() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=\"a\\\"; b\\\"; size=3");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("a\"; b\\");
+            assertThat(actual.getParameter(HeaderValue.SIZE))
+                    .isEqualTo("3");
+        }
+
+        @Test
+        void prefersQuotedPairsIfTheyEndTheValue() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=\"a\\\\b\"; size=3");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("a\\b");
+        }
+
+        @Test
+        void prefersExtFilename() {
+            ParsedContentDisposition actual = parser.parse(
+                    "attachment; filename=\"EURO rates\"; filename*=utf-8''%e2%82%ac%20rates");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("€ rates");
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("EURO rates");
+        }
+
+        @Test
+        void decodesIsoExtFilename() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename*=iso-8859-1'en'%A3%20rates");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("£ rates");
+            assertThat(actual.getFilenameLocale())
+                    .isEqualTo(Locale.ENGLISH);
+        }
+
+        @Test
+        void ignoresExtFilenameInUnsupportedCharset() {
+            ParsedContentDisposition actual = parser.parse(
+                    "attachment; filename=\"EURO rates\"; filename*=utf-16'en'%20%AC%00");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("EURO rates");
+            assertThat(actual.getFilenameLocale())
+                    .isNull();
+            assertThat(actual.getParameter("filename*"))
+                    .isNull();
+            assertThat(actual.getParameterCount())
+                    .isEqualTo(2);
+        }
+
+        @Test
+        void returnsNullWithoutFilename() {
+            ParsedContentDisposition actual = parser.parse("inline");
+
+            assertThat(actual.getFilename())
+                    .isNull();
+            assertThat(actual.getFilenameLocale())
+                    .isNull();
+            assertThat(actual.getParameterCount())
+                    .isZero();
+        }
+
+        @Test
+        void roundTripsGeneratedHeaders() {
+            Random random = new Random(42);
+
+            for (int i = 0; i < 5000; i++) {
+                String filename = randomFilename(random);
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(filename)
+                        .locale(Locale.GERMANY)
+                        .build();
+
+                ParsedContentDisposition actual = parser.parse(cd.headerValue());
+
+                String expected = filename.codePoints().allMatch(cp -> cp <= 0xFF)
+                        ? filename.trim()
+                        : filename;
+                assertThat(actual.getFilename())
+                        .describedAs(cd.headerValue())
+                        .isEqualTo(expected);
+            }
+        }
+
+        private String randomFilename(Random random) {
+            String filename = randomString(random, alphabet, 1, 20);
+            if (filename.trim().isEmpty()) {
+                return "x" + filename;
+            }
+
+            return filename;
+        }
+    }
+
+    @Nested
+    class ContinuationTest {
+        @Test
+        void reassemblesExtValue() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=\"EURO rates.pdf\""
+                    + "; filename*0*=UTF-8'de'%E2%82%AC; filename*1*=%20rates; filename*2=\".pdf\"");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("€ rates.pdf");
+            assertThat(actual.getParameter("FILENAME*"))
+                    .isEqualTo("€ rates.pdf");
+            assertThat(actual.getFilenameLocale())
+                    .isEqualTo(Locale.GERMAN);
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("EURO rates.pdf");
+        }
+
+        @Test
+        void reassemblesCharactersSpanningSections() {
+            ParsedContentDisposition actual = parser.parse(
+                    "attachment; filename*1*=%82; filename*0*=utf-8''%E2; filename*2*=%AC");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("€");
+        }
+
+        @Test
+        void reassemblesPlainValue() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename*0=\"foo \"; filename*1=bar.txt");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("foo bar.txt");
+            assertThat(actual.getParameter("filename*"))
+                    .isNull();
+        }
+
+        @Test
+        void stopsAtMissingSection() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename*0*=UTF-8''a; filename*2*=c");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("a");
+        }
+
+        @Test
+        void returnsSectionsAsGivenByIndex() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename*0*=UTF-8''%C3%B6; filename*1*=%C3%B6");
+
+            assertThat(actual.getParameterName(1))
+                    .isEqualTo("filename*1*");
+            assertThat(actual.getParameterValue(0))
+                    .isEqualTo("ö");
+            assertThat(actual.getParameterValue(1))
+                    .isEqualTo("%C3%B6");
+        }
+
+        @Test
+        void ignoresUnsupportedCharset() {
+            ParsedContentDisposition actual = parser.parse(
+                    "attachment; filename=fallback; filename*0*=utf-16''%20%AC; filename*1*=%00");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("fallback");
+            assertThat(actual.getFilenameLocale())
+                    .isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "attachment; name*01=x",
+                "attachment; *0=x",
+                "attachment; name*1234567890=x",
+        })
+        void readsOtherNamesAsRegularParameters(String input) {
+            ParsedContentDisposition actual = parser.parse(input);
+
+            assertThat(actual.getParameterValue(0))
+                    .isEqualTo("x");
+            assertThat(actual.getParameter("name"))
+                    .isNull();
+        }
+    }
+
+    @Nested
+    class ParameterTest {
+        @Test
+        void matchesNamesCaseInsensitive() {
+            ParsedContentDisposition actual = parser.parse("attachment; FileName=foo.html");
+
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("foo.html");
+            assertThat(actual.getParameterName(0))
+                    .isEqualTo("FileName");
+        }
+
+        @Test
+        void firstParameterWins() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename=a; filename=b");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("a");
+        }
+
+        @Test
+        void exposesAllParameters() {
+            ParsedContentDisposition actual = parser.parse(
+                    "form-data; name=\"field\"; a=1; b=2; c=3; d=4; filename=x.bin");
+
+            assertThat(actual.getParameterCount())
+                    .isEqualTo(6);
+            assertThat(actual.getParameterName(5))
+                    .isEqualTo("filename");
+            assertThat(actual.getParameterValue(0))
+                    .isEqualTo("field");
+            assertThat(actual.getParameterValue(4))
+                    .isEqualTo("4");
+        }
+
+        @Test
+        void isLenientAboutWhitespaceAndTrailingSemicolon() {
+            ParsedContentDisposition actual = parser.parse("attachment ;filename = \"a b\" ;\t");
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("a b");
+        }
+
+        @Test
+        void rejectsIndexOutOfBounds() {
+            ParsedContentDisposition actual = parser.parse("attachment; a=b");
+
+            assertThatThrownBy(() -> actual.getParameterValue(1))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Nested
+    class InvalidInputTest {
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                " ",
+                "; filename=foo",
+                "attachment filename=foo",
+        })
+        void rejectsInvalidType(String input) {
+            assertThatThrownBy(() -> parser.parse(input))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Invalid Content-Disposition");
+            assertThatThrownBy(() -> parser.parseDisposition(input))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Invalid Content-Disposition");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "attachment; filename",
+                "attachment; filename=",
+                "attachment; =foo",
+                "attachment; filename=\"foo",
+                "attachment; filename=\"foo\\",
+                "attachment; filename=\"fo\no\"",
+                "attachment; filename*=foo",
+                "attachment; filename*=utf-8'foo",
+                "attachment; filename*='en'foo",
+                "attachment; filename*=utf.8''foo",
+                "attachment; filename*0*=utf-8'foo",
+                "attachment; filename*1*=utf-8''foo",
+                "attachment; filename*1*=%XX",
+                "attachment; filename*=utf-8''%4",
+                "attachment; filename*=utf-8''%XX",
+                "attachment; filename*=utf-8''a\"b",
+                "attachment; a=b c",
+        })
+        void rejectsInvalidParametersOnFirstAccess(String input) {
+            ParsedContentDisposition actual = parser.parse(input);
+
+            assertThat(actual.isAttachment())
+                    .isTrue();
+            assertThatThrownBy(actual::getParameterCount)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Invalid Content-Disposition");
+        }
+    }
+
+    @Nested
+    class LazinessTest {
+        @Test
+        void checksDispositionWithoutScanningParameters() {
+            ParsedContentDisposition actual = parser.parse("attachment; this is not a valid parameter");
+
+            assertThat(actual.isAttachment())
+                    .isTrue();
+            assertThat(actual.isInline())
+                    .isFalse();
+        }
+
+        @Test
+        void parsesDispositionOnly() {
+            assertThat(parser.parseDisposition(" INLINE ; filename=\"unterminated"))
+                    .contains(Disposition.INLINE);
+            assertThat(parser.parseDisposition("form-data; name=x"))
+                    .isEmpty();
+        }
+
+        @Test
+        void memoizesValues() {
+            ParsedContentDisposition actual = parser.parse("attachment; filename*=UTF-8''%E2%82%AC");
+
+            String first = actual.getFilename();
+            String second = actual.getParameter("FILENAME*");
+
+            assertThat(first)
+                    .isEqualTo("€")
+                    .isSameAs(second);
+        }
+    }
+
+    @Nested
+    class BytesTest {
+        private final String header = "xxattachment; filename=\"Hellö\"; filename*=UTF-8''Hell%C3%B6yy";
+        private final byte[] bytes = header.getBytes(StandardCharsets.ISO_8859_1);
+
+        @Test
+        void parsesByteArraySlice() {
+            ParsedContentDisposition actual = parser.parse(bytes, 2, bytes.length - 4);
+
+            assertThat(actual.getDisposition())
+                    .contains(Disposition.ATTACHMENT);
+            assertThat(actual.getParameter("filename"))
+                    .isEqualTo("Hellö");
+            assertThat(actual.getFilename())
+                    .isEqualTo("Hellö");
+        }
+
+        @Test
+        void parsesDirectByteBufferWithoutMovingIt() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes);
+            ((Buffer) buffer).position(2);
+            ((Buffer) buffer).limit(bytes.length - 2);
+
+            ParsedContentDisposition actual = parser.parse(buffer);
+
+            assertThat(actual.getFilename())
+                    .isEqualTo("Hellö");
+            assertThat(buffer.position())
+                    .isEqualTo(2);
+            assertThat(buffer.limit())
+                    .isEqualTo(bytes.length - 2);
+        }
+    }
+}
@@ -51,6 +51,24 @@ public class DispositionTest {
                     () -> assertThat(Disposition.fromText("foobar")).isEmpty()
             );
         }
+
+        @Test
+        void shouldFindInRange() {
+            String text = "xx AttachMent ;";
+            assertAll(
+                    () -> assertThat(Disposition.fromText(text, 2, 14)).hasValue(Disposition.ATTACHMENT),
+                    () -> assertThat(Disposition.fromText(text, 3, 13)).hasValue(Disposition.ATTACHMENT),
+                    () -> assertThat(Disposition.fromText(text, 3, 12)).isEmpty(),
+                    () -> assertThat(Disposition.fromText(text, 0, text.length())).isEmpty(),
+                    () -> assertThat(Disposition.fromText(text, 5, 5)).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldNotAllocateOptionals() {
+            assertThat(Disposition.fromText("inline"))
+                    .isSameAs(Disposition.fromText("INLINE"));
+        }
     }
 
 }
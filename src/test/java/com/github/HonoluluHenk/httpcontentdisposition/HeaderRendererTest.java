@@ -0,0 +1,271 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.DefaultISO88591Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC2616CharacterRules;
+import com.github.HonoluluHenk.httpcontentdisposition.internal.rules.RFC8187Encoder;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.OverrideIsoFallback;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Locale;
+import java.util.Random;
+
+import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.randomString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeaderRendererTest {
+    /**
+     * Characters that exercise all the special cases: trimming, quoting, escaping, Latin-1, BMP, surrogates.
+     */
+    private static final String[] ALPHABET = {
+            "a", "Z", "0", ".", "-", "_", " ", "\t", "\u0000", "\u001F", "\"", "\\", "'", "*", "%", "(", ";", "=",
+            "ö", "µ", "«", "ÿ", "€", "❤", "東", "﷽", "😀", "\uD800", "\uDC00",
+    };
+
+    private final HeaderRenderer renderer = new HeaderRenderer();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            " ",
+            "   ",
+            "asdf.bin",
+            " asdf.bin ",
+            "as\"df.bin",
+            "«plans: µ».pdf",
+            "I ❤ Ada Lovelace",
+            " ❤ ",
+            "😀",
+            "a\uD800b",
+            "\"",
+    })
+    void shouldRenderSameAsLegacyImplementation(String filename) {
+        assertSameAsLegacy(filename, new EncodeIsoFallback(), null);
+        assertSameAsLegacy(filename, new EncodeIsoFallback(), Locale.GERMANY);
+        assertSameAsLegacy(filename, new OverrideIsoFallback("fallback"), null);
+        assertSameAsLegacy(filename, new OverrideIsoFallback(" I ❤ \"quotes\" "), null);
+        assertSameAsLegacy(filename, new OverrideIsoFallback("Euro: €", false), null);
+        assertSameAsLegacy(filename, new OverrideIsoFallback(""), null);
+        assertSameAsLegacy(filename, new OverrideIsoFallback(null), null);
+        assertSameAsLegacy(filename, input -> input, null);
+    }
+
+    @Test
+    void shouldRenderRandomFilenamesSameAsLegacyImplementation() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String filename = randomString(random, ALPHABET, 0, 11);
+
+            assertSameAsLegacy(filename, new EncodeIsoFallback(), null);
+            assertSameAsLegacy(filename, input -> input, Locale.CANADA);
+        }
+    }
+
+    @Test
+    void shouldBeReusable() {
+        String first = renderer.render(Disposition.ATTACHMENT, "I ❤ Ada Lovelace", new EncodeIsoFallback(), null);
+        String second = renderer.render(Disposition.INLINE, "plain.txt", new EncodeIsoFallback(), null);
+        String third = renderer.render(Disposition.INLINE, "€", new EncodeIsoFallback(), null);
+
+        assertThat(first)
+                .isEqualTo("attachment; filename=\"I ? Ada Lovelace\"; filename*=UTF-8''I%20%E2%9D%A4%20Ada%20Lovelace");
+        assertThat(second)
+                .isEqualTo("inline; filename=plain.txt");
+        assertThat(third)
+                .isEqualTo("inline; filename=\"?\"; filename*=UTF-8''%E2%82%AC");
+    }
+
+    @Test
+    void shouldFollowLocaleChanges() {
+        String first = renderer.render(Disposition.ATTACHMENT, "€", new EncodeIsoFallback(), Locale.GERMANY);
+        String second = renderer.render(Disposition.ATTACHMENT, "€", new EncodeIsoFallback(), null);
+        String third = renderer.render(Disposition.ATTACHMENT, "€", new EncodeIsoFallback(), Locale.FRANCE);
+
+        assertThat(first)
+                .endsWith("UTF-8'de-DE'%E2%82%AC");
+        assertThat(second)
+                .endsWith("UTF-8''%E2%82%AC");
+        assertThat(third)
+                .endsWith("UTF-8'fr-FR'%E2%82%AC");
+    }
+
+    @Test
+    void shouldRenderSameAsHeaderValue() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2_000; i++) {
+            String filename = randomString(random, ALPHABET, 1, 12);
+            String expected = HttpContentDisposition.builder()
+                    .disposition(Disposition.INLINE)
+                    .filename(filename)
+                    .locale(Locale.GERMANY)
+                    .build()
+                    .headerValue();
+
+            // any CharSequence, not only Strings
+            String actual = renderer.render(Disposition.INLINE, filename, new EncodeIsoFallback(), Locale.GERMANY);
+
+            assertThat(actual)
+                    .describedAs("filename: %s", filename)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldStayUsableAfterReset() {
+        StringBuilder huge = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            huge.append('€');
+        }
+        renderer.render(Disposition.ATTACHMENT, huge, new EncodeIsoFallback(), Locale.GERMANY);
+
+        renderer.reset();
+        String actual = renderer.render(Disposition.ATTACHMENT, "€", new EncodeIsoFallback(), null);
+
+        assertThat(actual)
+                .isEqualTo("attachment; filename=\"?\"; filename*=UTF-8''%E2%82%AC");
+    }
+
+    @Test
+    void shouldRenderContinuations() {
+        HeaderRenderer continuations = new HeaderRenderer(12);
+
+        String actual = continuations.render(Disposition.ATTACHMENT, "€€€x", new EncodeIsoFallback(), Locale.GERMANY);
+
+        assertThat(actual)
+                .isEqualTo("attachment; filename=\"???x\""
+                        + "; filename*0*=UTF-8'de-DE'%E2%82%AC"
+                        + "; filename*1*=%E2%82%AC"
+                        + "; filename*2*=%E2%82%ACx");
+    }
+
+    @Test
+    void shouldNotRenderContinuationsIfExtValueFits() {
+        HeaderRenderer continuations = new HeaderRenderer(22);
+
+        String actual = continuations.render(Disposition.ATTACHMENT, "€€ x", new EncodeIsoFallback(), null);
+
+        assertThat(actual)
+                .isEqualTo("attachment; filename=\"?? x\"; filename*=UTF-8''%E2%82%AC%E2%82%AC%20x");
+    }
+
+    @Test
+    void shouldRenderContinuationsOfRandomFilenames() {
+        HeaderRenderer continuations = new HeaderRenderer(20);
+        Random random = new Random(11);
+
+        for (int i = 0; i < 2_000; i++) {
+            String filename = randomString(random, ALPHABET, 0, 29);
+            String unsplit = renderer.render(Disposition.INLINE, filename, new EncodeIsoFallback(), Locale.GERMANY);
+
+            String actual = continuations.render(Disposition.INLINE, filename, new EncodeIsoFallback(), Locale.GERMANY);
+
+            // joining the segments again must give the unsplit value
+            String joined = actual
+                    .replaceFirst("; filename\\*0\\*=", "; filename*=")
+                    .replaceAll("; filename\\*[1-9][0-9]*\\*=", "");
+            assertThat(joined)
+                    .describedAs("filename: %s", filename)
+                    .isEqualTo(unsplit);
+            assertThat(stream(continuations, Disposition.INLINE, filename, new EncodeIsoFallback(), Locale.GERMANY))
+                    .describedAs("filename: %s", filename)
+                    .isEqualTo(actual);
+        }
+    }
+
+    @Test
+    void shouldRejectTooShortSegments() {
+        assertThatThrownBy(() -> new HeaderRenderer(11))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeaderRenderer(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectMissingArguments() {
+        assertThatThrownBy(() -> renderer.render(null, "a", new EncodeIsoFallback(), null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("disposition must be given");
+        assertThatThrownBy(() -> renderer.render(Disposition.INLINE, null, new EncodeIsoFallback(), null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("filename must be given");
+        assertThatThrownBy(() -> renderer.render(Disposition.INLINE, "a", null, null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("isoFallback must be given");
+    }
+
+    private void assertSameAsLegacy(String filename, IsoFallback isoFallback, @Nullable Locale locale) {
+        String expected = LegacyRenderer.render(Disposition.ATTACHMENT, filename, isoFallback, locale);
+
+        String actual = renderer.render(Disposition.ATTACHMENT, filename, isoFallback, locale);
+
+        assertThat(actual)
+                .describedAs("filename: %s", filename)
+                .isEqualTo(expected);
+        assertThat(stream(renderer, Disposition.ATTACHMENT, filename, isoFallback, locale))
+                .describedAs("filename: %s", filename)
+                .isEqualTo(expected);
+    }
+
+    /**
+     * Renders through the {@link Appendable} path, with a filename that is no String.
+     */
+    private static String stream(
+            HeaderRenderer renderer,
+            Disposition disposition,
+            String filename,
+            IsoFallback isoFallback,
+            @Nullable Locale locale
+    ) {
+        StringWriter out = new StringWriter();
+        try {
+            renderer.render(disposition, CharBuffer.wrap(filename), isoFallback, locale, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * The multi pass implementation of {@link HttpContentDisposition#headerValue()} up to release 1.0.4.
+     */
+    private static final class LegacyRenderer {
+        private static final RFC8187Encoder RFC_8187_ENCODER = new RFC8187Encoder();
+        private static final RFC2616CharacterRules RULES = RFC2616CharacterRules.getInstance();
+        private static final DefaultISO88591Encoder ISO_88591_ENCODER = new DefaultISO88591Encoder();
+
+        static String render(Disposition disposition, String filename, IsoFallback isoFallback, @Nullable Locale locale) {
+            boolean needsEncoding = !filename.codePoints().allMatch(RULES::isOCTET);
+
+            StringBuilder sb = new StringBuilder(disposition.getHeaderAttribute());
+
+            String iso = isoFallback.fallback(filename);
+            if (iso != null) {
+                if (isoFallback.needsEncoding()) {
+                    iso = ISO_88591_ENCODER.encode(iso);
+                }
+                if (!RULES.isToken(iso)) {
+                    iso = '"' + iso.replace("\"", "\\\"") + '"';
+                }
+                sb.append("; filename=").append(iso);
+            }
+
+            if (needsEncoding) {
+                sb.append("; filename*=").append(RFC_8187_ENCODER.encodeExtValue(filename, locale).getValue());
+            }
+
+            return sb.toString();
+        }
+    }
+}
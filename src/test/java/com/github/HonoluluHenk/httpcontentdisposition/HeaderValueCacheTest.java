@@ -0,0 +1,113 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.OverrideIsoFallback;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeaderValueCacheTest {
+    private final HeaderValueCache cache = new HeaderValueCache(100);
+
+    private HttpContentDisposition.Builder builder(String filename) {
+        return HttpContentDisposition.builder()
+                .filename(filename)
+                .cache(cache);
+    }
+
+    @Test
+    void shouldRenderSameValueAsUncached() {
+        String uncached = HttpContentDisposition.builder()
+                .filename("I ❤ Ada Lovelace")
+                .build()
+                .headerValue();
+
+        String first = builder("I ❤ Ada Lovelace").build().headerValue();
+        String second = builder("I ❤ Ada Lovelace").build().headerValue();
+
+        assertThat(first)
+                .isEqualTo(uncached);
+        assertThat(second)
+                .isSameAs(first);
+        assertThat(cache.getMissCount())
+                .isEqualTo(1);
+        assertThat(cache.getHitCount())
+                .isEqualTo(1);
+        assertThat(cache.getHitRate())
+                .isEqualTo(0.5);
+        assertThat(cache.getSize())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeyOnAllParams() {
+        builder("a.txt").build().headerValue();
+        builder("b.txt").build().headerValue();
+        builder("a.txt").disposition(Disposition.INLINE).build().headerValue();
+        builder("a.txt").locale(Locale.GERMANY).build().headerValue();
+        builder("a.txt").isoFallbackValue("other").build().headerValue();
+        builder("a.txt").isoFallback(new OverrideIsoFallback("other", false)).build().headerValue();
+        builder("a.txt").size(1).build().headerValue();
+        builder("a.txt").size(2).build().headerValue();
+        builder("a.txt").maxSegmentLength(100).build().headerValue();
+        builder("a.txt").maxHeaderLength(100).build().headerValue();
+
+        assertThat(cache.getMissCount())
+                .isEqualTo(10);
+        assertThat(cache.getHitCount())
+                .isEqualTo(0);
+    }
+
+    @Test
+    void shouldCacheEqualOverrideIsoFallbacks() {
+        String first = builder("a.txt").isoFallbackValue("other").build().headerValue();
+        String second = builder("a.txt").isoFallbackValue("other").build().headerValue();
+
+        assertThat(second)
+                .isSameAs(first)
+                .isEqualTo("attachment; filename=other");
+        assertThat(cache.getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldBypassNonCacheableIsoFallback() {
+        String actual = builder("I ❤ Ada Lovelace")
+                .isoFallback(input -> "lambda")
+                .build()
+                .headerValue();
+
+        assertThat(actual)
+                .isEqualTo("attachment; filename=lambda; filename*=UTF-8''I%20%E2%9D%A4%20Ada%20Lovelace");
+        assertThat(cache.getMissCount() + cache.getHitCount())
+                .isEqualTo(0);
+        assertThat(cache.getSize())
+                .isEqualTo(0);
+    }
+
+    @Test
+    void shouldBeBounded() {
+        HeaderValueCache small = new HeaderValueCache(16);
+
+        for (int i = 0; i < 1000; i++) {
+            HttpContentDisposition.builder()
+                    .filename("file-" + i + ".txt")
+                    .cache(small)
+                    .build()
+                    .headerValue();
+        }
+
+        assertThat(small.getSize())
+                .isLessThanOrEqualTo(small.getMaximumSize())
+                .isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void toBuilderKeepsCache() {
+        HttpContentDisposition original = builder("a.txt").build();
+
+        assertThat(original.toBuilder().getCache())
+                .isSameAs(cache);
+    }
+}
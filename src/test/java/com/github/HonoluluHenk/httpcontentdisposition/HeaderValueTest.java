@@ -0,0 +1,85 @@
+package com.github.HonoluluHenk.httpcontentdisposition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeaderValueTest {
+    @ParameterizedTest
+    @CsvSource({
+            "upload, upload",
+            "'my upload', '\"my upload\"'",
+            "'a\"b', '\"a\\\"b\"'",
+            "'a\\b', '\"a\\\\b\"'",
+            "'', '\"\"'",
+            "'Grüße', '\"Grüße\"'",
+    })
+    void rendersTokenOrQuotedString(String value, String expected) {
+        HeaderValue actual = HeaderValue.of("name", value);
+
+        assertThat(actual.getValue())
+                .isEqualTo(expected);
+        assertThat(render(actual))
+                .isEqualTo("; name=" + expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 7, 12345, Long.MAX_VALUE})
+    void rendersNumbers(long value) {
+        HeaderValue actual = HeaderValue.of(HeaderValue.SIZE, value);
+
+        assertThat(render(actual))
+                .isEqualTo("; size=" + value);
+    }
+
+    @Test
+    void rendersDatesAsRfc822() {
+        HeaderValue actual = HeaderValue.of(HeaderValue.READ_DATE, Instant.parse("2026-10-08T07:05:00Z"));
+
+        assertThat(render(actual))
+                .isEqualTo("; read-date=\"Thu, 8 Oct 2026 07:05:00 GMT\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "my name", "a*", "a'b", "a%b", "a=b", "a;b", "näme", "filename", "FileName"})
+    void rejectsInvalidNames(String name) {
+        assertThatThrownBy(() -> HeaderValue.of(name, "x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a\r\nSet-Cookie: x=y", "a\nb", "a\u0000b", "a\u007Fb", "€"})
+    void rejectsInvalidValues(String value) {
+        assertThatThrownBy(() -> HeaderValue.of("name", value))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Not a valid parameter value");
+    }
+
+    @Test
+    void rejectsNegativeNumbers() {
+        assertThatThrownBy(() -> HeaderValue.of(HeaderValue.SIZE, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void equalsByNameAndValue() {
+        assertThat(HeaderValue.of("size", 1))
+                .isEqualTo(HeaderValue.of("size", 1))
+                .hasSameHashCodeAs(HeaderValue.of("size", 1))
+                .isNotEqualTo(HeaderValue.of("size", 2))
+                .isNotEqualTo(HeaderValue.of("size", "1"));
+    }
+
+    private static String render(HeaderValue value) {
+        StringBuilder result = new StringBuilder();
+        value.appendTo(result);
+
+        return result.toString();
+    }
+}
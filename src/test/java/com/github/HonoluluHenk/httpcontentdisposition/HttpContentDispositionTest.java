@@ -1,13 +1,33 @@
 package com.github.HonoluluHenk.httpcontentdisposition;
 
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.CachingIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.EncodeIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.IsoFallback;
 import com.github.HonoluluHenk.httpcontentdisposition.isofallback.OverrideIsoFallback;
+import com.github.HonoluluHenk.httpcontentdisposition.isofallback.TransliteratingIsoFallback;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.github.HonoluluHenk.httpcontentdisposition.Disposition.INLINE;
+import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.randomString;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class HttpContentDispositionTest {
 
@@ -208,6 +228,641 @@ public class HttpContentDispositionTest {
 
     }
 
+    @Nested
+    class AppendingTest {
+        @Test
+        void appendsToStringBuilder() {
+            StringBuilder sb = new StringBuilder("Content-Disposition: ");
+
+            withFilename("Hello €.txt").headerValue(sb);
+
+            assertThat(sb.toString())
+                    .isEqualTo("Content-Disposition: attachment; filename=\"Hello ?.txt\"; filename*=UTF-8''Hello%20%E2%82%AC.txt");
+        }
+
+        @Test
+        void appendsToAppendable() throws IOException {
+            StringWriter writer = new StringWriter();
+            writer.append("foo: ");
+
+            withFilename("Hello €.txt").headerValue(writer);
+
+            assertThat(writer.toString())
+                    .isEqualTo("foo: attachment; filename=\"Hello ?.txt\"; filename*=UTF-8''Hello%20%E2%82%AC.txt");
+        }
+
+        @Test
+        void streamsSameAsHeaderValueOfRandomFilenames() throws IOException {
+            String[] alphabet = {"a", " ", "\"", "\\", "%", "ö", "€", "東", "😀", "\uD800"};
+            Random random = new Random(5);
+
+            for (int i = 0; i < 2_000; i++) {
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(randomString(random, alphabet, 0, 49))
+                        .isoFallback(random.nextBoolean() ? new EncodeIsoFallback() : new TransliteratingIsoFallback())
+                        .locale(random.nextBoolean() ? Locale.GERMANY : null)
+                        .maxSegmentLength(random.nextBoolean() ? HeaderRenderer.NO_CONTINUATIONS : 12 + random.nextInt(40))
+                        .maxHeaderLength(random.nextBoolean() ? HttpContentDisposition.NO_MAX_HEADER_LENGTH : 200)
+                        .size(i)
+                        .build();
+                StringWriter writer = new StringWriter();
+
+                cd.headerValue(writer);
+
+                assertThat(writer.toString())
+                        .describedAs("filename: %s", cd.getFilename())
+                        .isEqualTo(cd.headerValue());
+            }
+        }
+
+        @Test
+        void appendsCachedValue() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("Hello.txt")
+                    .cache(new HeaderValueCache(10))
+                    .build();
+            StringBuilder first = new StringBuilder();
+            StringBuilder second = new StringBuilder();
+
+            cd.headerValue(first);
+            cd.headerValue(second);
+
+            assertThat(first.toString())
+                    .isEqualTo(second.toString())
+                    .isEqualTo(cd.headerValue())
+                    .isEqualTo("attachment; filename=Hello.txt");
+            assertThat(cd.getCache().getHitCount())
+                    .isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class ByteBufferTest {
+        @Test
+        void writesHeaderLine() {
+            ByteBuffer buffer = ByteBuffer.allocate(128);
+
+            int actual = withFilename("Hellö.txt").writeTo(buffer);
+
+            String expected = "Content-Disposition: attachment; filename=\"Hellö.txt\"";
+            assertThat(actual)
+                    .isEqualTo(expected.length())
+                    .isEqualTo(buffer.position());
+            assertThat(new String(buffer.array(), 0, actual, StandardCharsets.ISO_8859_1))
+                    .isEqualTo(expected);
+        }
+
+        @Test
+        void writesValueIntoDirectBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+            buffer.put((byte) 'x');
+            HttpContentDisposition cd = withFilename("I ❤ ö");
+
+            int actual = cd.writeValueTo(buffer);
+
+            byte[] written = new byte[actual];
+            ((Buffer) buffer).flip();
+            buffer.get();
+            buffer.get(written);
+            assertThat(new String(written, StandardCharsets.ISO_8859_1))
+                    .isEqualTo(cd.headerValue())
+                    .isEqualTo("attachment; filename=\"I ? ö\"; filename*=UTF-8''I%20%E2%9D%A4%20%C3%B6");
+        }
+
+        @Test
+        void replacesNonLatin1CharsOfUnencodedFallback() {
+            ByteBuffer buffer = ByteBuffer.allocate(128);
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("a")
+                    .isoFallback(new OverrideIsoFallback("€", false))
+                    .build();
+
+            int actual = cd.writeValueTo(buffer);
+
+            assertThat(new String(buffer.array(), 0, actual, StandardCharsets.ISO_8859_1))
+                    .isEqualTo("attachment; filename=\"?\"");
+        }
+
+        @Test
+        void doesNotWritePartially() {
+            HttpContentDisposition cd = withFilename("foo.txt");
+            ByteBuffer buffer = ByteBuffer.allocate(cd.headerValue().length() - 1);
+
+            assertThatThrownBy(() -> cd.writeValueTo(buffer))
+                    .isInstanceOf(BufferOverflowException.class);
+            assertThat(buffer.position())
+                    .isZero();
+            assertThat(buffer.array())
+                    .containsOnly(0);
+        }
+
+        @Test
+        void fitsExactly() {
+            HttpContentDisposition cd = withFilename("foo.txt");
+            ByteBuffer buffer = ByteBuffer.allocate(cd.headerValue().length());
+
+            cd.writeValueTo(buffer);
+
+            assertThat(buffer.hasRemaining())
+                    .isFalse();
+        }
+
+        @Test
+        void writesSameAsHeaderValueOfRandomFilenames() {
+            String[] alphabet = {"a", " ", "\"", "\\", "%", "ö", "€", "東", "😀", "\uD800"};
+            Random random = new Random(13);
+
+            for (int i = 0; i < 2_000; i++) {
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(randomString(random, alphabet, 0, 49))
+                        .isoFallback(random.nextBoolean() ? new EncodeIsoFallback() : new TransliteratingIsoFallback())
+                        .locale(random.nextBoolean() ? Locale.GERMANY : null)
+                        .maxSegmentLength(random.nextBoolean() ? HeaderRenderer.NO_CONTINUATIONS : 12 + random.nextInt(40))
+                        .maxHeaderLength(random.nextBoolean() ? HttpContentDisposition.NO_MAX_HEADER_LENGTH : 200)
+                        .size(i)
+                        .build();
+                String line = "Content-Disposition: " + cd.headerValue();
+                ByteBuffer tooSmall = ByteBuffer.allocateDirect(line.length() - 1);
+                ByteBuffer buffer = ByteBuffer.allocate(line.length());
+
+                assertThatThrownBy(() -> cd.writeTo(tooSmall))
+                        .isInstanceOf(BufferOverflowException.class);
+                int written = cd.writeTo(buffer);
+
+                assertThat(tooSmall.position())
+                        .isZero();
+                assertThat(written)
+                        .isEqualTo(line.length());
+                assertThat(new String(buffer.array(), 0, written, StandardCharsets.ISO_8859_1))
+                        .describedAs("filename: %s", cd.getFilename())
+                        .isEqualTo(line.replace("\uD800", "?"));
+            }
+        }
+
+        @Test
+        void doesNotWriteCachedValuePartially() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("foo.txt")
+                    .cache(new HeaderValueCache(10))
+                    .build();
+            ByteBuffer buffer = ByteBuffer.allocate("Content-Disposition: ".length() + cd.headerValue().length() - 1);
+
+            assertThatThrownBy(() -> cd.writeTo(buffer))
+                    .isInstanceOf(BufferOverflowException.class);
+            assertThat(buffer.position())
+                    .isZero();
+        }
+
+        @Test
+        void takesBackPartialWriteOfInconsistentFallback() {
+            int[] calls = {0};
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("foo.txt")
+                    // longer after the first call: the rendered value does not fit into the measured room
+                    .isoFallback(input -> calls[0]++ == 0 ? input : input + "x")
+                    .build();
+            ByteBuffer buffer = ByteBuffer.allocate("attachment; filename=foo.txt".length());
+
+            assertThatThrownBy(() -> cd.writeValueTo(buffer))
+                    .isInstanceOf(BufferOverflowException.class);
+            assertThat(buffer.position())
+                    .isZero();
+        }
+    }
+
+    @Nested
+    class RenderAllTest {
+        @Test
+        void rendersSameAsSingleInstances() {
+            List<String> filenames = Arrays.asList("plain.txt", "I ❤ Ada Lovelace", "Hellö", "", " ", "€");
+
+            String[] actual = HttpContentDisposition.renderAll(INLINE, filenames, Locale.GERMANY);
+
+            String[] expected = filenames.stream()
+                    .map(filename -> HttpContentDisposition.builder()
+                            .disposition(INLINE)
+                            .filename(filename)
+                            .locale(Locale.GERMANY)
+                            .build()
+                            .headerValue())
+                    .toArray(String[]::new);
+            assertThat(actual)
+                    .containsExactly(expected);
+        }
+
+        @Test
+        void usesIsoFallback() {
+            String[] actual = HttpContentDisposition.renderAll(
+                    Disposition.ATTACHMENT,
+                    Arrays.asList("a", "b"),
+                    new OverrideIsoFallback("fallback"),
+                    null);
+
+            assertThat(actual)
+                    .containsExactly(
+                            "attachment; filename=fallback",
+                            "attachment; filename=fallback");
+        }
+
+        @Test
+        void handlesEmptyList() {
+            String[] actual = HttpContentDisposition.renderAll(INLINE, Collections.emptyList(), null);
+
+            assertThat(actual)
+                    .isEmpty();
+        }
+
+        @Test
+        void rejectsNullFilenames() {
+            assertThatThrownBy(() -> HttpContentDisposition.renderAll(INLINE, Arrays.asList("a", null), null))
+                    .isInstanceOf(NullPointerException.class);
+        }
+
+        @Test
+        void rendersInParallelInInputOrder() {
+            String[] filenames = new String[10_000];
+            for (int i = 0; i < filenames.length; i++) {
+                filenames[i] = i % 3 == 0 ? i + " ❤.txt" : i + ".txt";
+            }
+            ForkJoinPool pool = new ForkJoinPool(4);
+
+            try {
+                String[] actual = HttpContentDisposition.renderAllParallel(
+                        INLINE, filenames, new EncodeIsoFallback(), Locale.GERMANY, pool);
+
+                assertThat(actual)
+                        .containsExactly(HttpContentDisposition.renderAll(INLINE, Arrays.asList(filenames), Locale.GERMANY));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        @Test
+        void rendersSmallBatchesInParallel() {
+            String[] actual = HttpContentDisposition.renderAllParallel(INLINE, new String[]{"a b", "c"}, null);
+
+            assertThat(actual)
+                    .containsExactly("inline; filename=\"a b\"", "inline; filename=c");
+        }
+
+        @Test
+        void rejectsNullFilenamesBeforeRenderingInParallel() {
+            assertThatThrownBy(() -> HttpContentDisposition.renderAllParallel(INLINE, new String[]{"a", null}, null))
+                    .isInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Nested
+    class ParametersTest {
+        @Test
+        void rendersParametersAfterFilename() {
+            String actual = HttpContentDisposition.builder()
+                    .filename("€ rates.pdf")
+                    .size(12345)
+                    .modificationDate(Instant.parse("1997-02-12T16:29:51Z"))
+                    .parameter(HeaderValue.NAME, "upload")
+                    .build()
+                    .headerValue();
+
+            assertThat(actual)
+                    .isEqualTo("attachment; filename=\"? rates.pdf\"; filename*=UTF-8''%E2%82%AC%20rates.pdf"
+                            + "; size=12345"
+                            + "; modification-date=\"Wed, 12 Feb 1997 16:29:51 GMT\""
+                            + "; name=upload");
+        }
+
+        @Test
+        void replacesParameterOfSameName() {
+            HttpContentDisposition actual = HttpContentDisposition.builder()
+                    .filename("a.txt")
+                    .size(1)
+                    .parameter("SIZE", 2)
+                    .build();
+
+            assertThat(actual.getParameters())
+                    .containsExactly(HeaderValue.of("SIZE", 2));
+            assertThat(actual.headerValue())
+                    .isEqualTo("attachment; filename=a.txt; SIZE=2");
+        }
+
+        @Test
+        void rendersSameIntoAllTargets() throws IOException {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("a.txt")
+                    .size(Long.MAX_VALUE)
+                    .build();
+            StringBuilder sb = new StringBuilder();
+            StringWriter writer = new StringWriter();
+            ByteBuffer buffer = ByteBuffer.allocate(100);
+
+            cd.headerValue(sb);
+            cd.headerValue(writer);
+            int written = cd.writeValueTo(buffer);
+
+            assertThat(cd.headerValue())
+                    .isEqualTo("attachment; filename=a.txt; size=9223372036854775807")
+                    .isEqualTo(sb.toString())
+                    .isEqualTo(writer.toString())
+                    .isEqualTo(new String(buffer.array(), 0, written, StandardCharsets.ISO_8859_1));
+        }
+
+        @Test
+        void keepsParametersInToBuilder() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .size(42)
+                    .build();
+
+            assertThat(cd.toBuilder().build().getParameters())
+                    .containsExactly(HeaderValue.of(HeaderValue.SIZE, 42));
+        }
+    }
+
+    @Nested
+    class ContinuationsTest {
+        @Test
+        void splitsLongExtValues() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("東京東京東京")
+                    .maxSegmentLength(20)
+                    .size(7)
+                    .build();
+
+            assertThat(cd.headerValue())
+                    .isEqualTo("attachment; filename=\"??????\""
+                            + "; filename*0*=UTF-8''%E6%9D%B1%E4%BA%AC"
+                            + "; filename*1*=%E6%9D%B1%E4%BA%AC"
+                            + "; filename*2*=%E6%9D%B1%E4%BA%AC"
+                            + "; size=7");
+            assertThat(cd.toBuilder().getMaxSegmentLength())
+                    .isEqualTo(20);
+        }
+
+        @Test
+        void rejectsTooShortSegments() {
+            assertThatThrownBy(() -> HttpContentDisposition.builder().maxSegmentLength(5))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void roundTripsThroughParser() {
+            String[] alphabet = {"a", " ", "\"", "\\", "'", "%", "*", "ö", "€", "東", "😀"};
+            Random random = new Random(7);
+            ContentDispositionParser parser = new ContentDispositionParser();
+
+            for (int i = 0; i < 2_000; i++) {
+                // always needs filename*
+                String filename = "東" + randomString(random, alphabet, 0, 59);
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(filename)
+                        .locale(Locale.GERMANY)
+                        .maxSegmentLength(12 + random.nextInt(40))
+                        .size(i)
+                        .build();
+
+                ParsedContentDisposition actual = parser.parse(cd.headerValue());
+
+                assertThat(actual.getFilename())
+                        .describedAs(cd.headerValue())
+                        .isEqualTo(filename);
+                assertThat(actual.getFilenameLocale())
+                        .isEqualTo(Locale.GERMANY);
+                assertThat(actual.getParameter(HeaderValue.SIZE))
+                        .isEqualTo(String.valueOf(i));
+            }
+        }
+    }
+
+    @Nested
+    class EncodedLengthTest {
+        private final String[] alphabet = {
+                "a", "Z", "0", ".", "-", " ", "\t", "\"", "\\", "'", "%", "ö", "µ", "€", "❤", "東", "😀", "\uD800",
+        };
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "", " ", "asdf.bin", " asdf.bin ", "as\"df.bin", "as df.bin", "a/b", "a\\b", "Ölbohrung.txt",
+                "I ❤ Ada Lovelace", "€", "😀", "a\uD800b", "東京.pdf",
+        })
+        void matchesHeaderValue(String filename) {
+            assertEncodedLength(withFilename(filename));
+            assertEncodedLength(withFilename(filename).toBuilder().locale(Locale.GERMANY).size(42).build());
+            assertEncodedLength(withFilename(filename).toBuilder().isoFallbackValue("fall \"back\"").build());
+            assertEncodedLength(withFilename(filename).toBuilder().isoFallbackValue(null).build());
+            assertEncodedLength(withFilename(filename).toBuilder().isoFallback(new OverrideIsoFallback("€", false)).build());
+            assertEncodedLength(withFilename(filename).toBuilder().maxSegmentLength(12).build());
+        }
+
+        @Test
+        void matchesHeaderValueOfRandomFilenames() {
+            Random random = new Random(99);
+
+            for (int i = 0; i < 5_000; i++) {
+                String filename = randomString(random, alphabet, 0, 49);
+
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .disposition(random.nextBoolean() ? INLINE : Disposition.ATTACHMENT)
+                        .filename(filename)
+                        .locale(random.nextBoolean() ? Locale.CANADA_FRENCH : null)
+                        .maxSegmentLength(random.nextBoolean() ? HeaderRenderer.NO_CONTINUATIONS : 12 + random.nextInt(40))
+                        .maxHeaderLength(random.nextBoolean() ? HttpContentDisposition.NO_MAX_HEADER_LENGTH : 300)
+                        .build();
+
+                assertEncodedLength(cd);
+            }
+        }
+
+        private void assertEncodedLength(HttpContentDisposition cd) {
+            assertThat(cd.encodedLength())
+                    .describedAs("filename: %s", cd.getFilename())
+                    .isEqualTo(cd.headerValue().length());
+        }
+    }
+
+    @Nested
+    class MaxHeaderLengthTest {
+        private final String[] alphabet = {
+                "a", "Z", "0", ".", " ", "\"", "%", "ö", "€", "東", "😀", "\uD800",
+        };
+
+        @Test
+        void keepsFilenameIfItFits() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("I ❤ Ada Lovelace.pdf")
+                    .maxHeaderLength(200)
+                    .build();
+
+            assertThat(cd.headerValue())
+                    .isEqualTo(withFilename("I ❤ Ada Lovelace.pdf").headerValue());
+        }
+
+        @Test
+        void shortensBaseNameAndKeepsExtension() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("東京東京東京東京東京.pdf")
+                    .maxHeaderLength(100)
+                    .build();
+
+            String actual = cd.headerValue();
+
+            assertThat(actual)
+                    .isEqualTo("attachment; filename=\"?????.pdf\""
+                            + "; filename*=UTF-8''%E6%9D%B1%E4%BA%AC%E6%9D%B1%E4%BA%AC%E6%9D%B1.pdf")
+                    .hasSize(100);
+        }
+
+        @Test
+        void neverSplitsSurrogatePairs() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("😀😀😀😀😀😀")
+                    .maxHeaderLength(70)
+                    .build();
+
+            assertThat(cd.headerValue())
+                    .isEqualTo("attachment; filename=\"??\"; filename*=UTF-8''%F0%9F%98%80%F0%9F%98%80");
+        }
+
+        @Test
+        void staysWithinBudgetForRandomFilenames() {
+            Random random = new Random(23);
+
+            for (int i = 0; i < 5_000; i++) {
+                String filename = randomString(random, alphabet, 0, 59);
+                int maxHeaderLength = 120 + random.nextInt(200);
+                int maxSegmentLength = random.nextBoolean() ? HeaderRenderer.NO_CONTINUATIONS : 30;
+                HttpContentDisposition.Builder builder = HttpContentDisposition.builder()
+                        .filename(filename)
+                        .locale(random.nextBoolean() ? Locale.GERMANY : null)
+                        .maxSegmentLength(maxSegmentLength)
+                        .size(random.nextInt(100_000));
+                String unlimited = builder.build().headerValue();
+
+                String actual = builder.maxHeaderLength(maxHeaderLength).build().headerValue();
+
+                assertThat(actual)
+                        .describedAs("filename: %s", filename)
+                        .hasSizeLessThanOrEqualTo(maxHeaderLength);
+                if (unlimited.length() <= maxHeaderLength) {
+                    assertThat(actual)
+                            .isEqualTo(unlimited);
+                }
+            }
+        }
+
+        @Test
+        void usesCustomIsoFallback() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("東京東京東京東京東京.pdf")
+                    .isoFallbackValue("tokyo.pdf")
+                    .maxHeaderLength(80)
+                    .build();
+
+            assertThat(cd.headerValue())
+                    .isEqualTo("attachment; filename=tokyo.pdf; filename*=UTF-8''%E6%9D%B1%E4%BA%AC%E6%9D%B1.pdf");
+        }
+
+        @Test
+        void shortensWithFilenameDependentIsoFallbacks() {
+            String filename = repeat("Übersicht März ", 20) + ".pdf";
+            IsoFallback[] fallbacks = {
+                    new TransliteratingIsoFallback(),
+                    new CachingIsoFallback(new EncodeIsoFallback(), 10),
+                    // not counted per code point: more chars than the filename
+                    input -> input.replace("ü", "ue").replace("ä", "ae"),
+            };
+
+            for (IsoFallback fallback : fallbacks) {
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(filename)
+                        .isoFallback(fallback)
+                        .maxHeaderLength(200)
+                        .build();
+
+                String actual = cd.headerValue();
+
+                assertThat(actual)
+                        .describedAs("fallback: %s", fallback)
+                        .doesNotContain(filename)
+                        .contains("sicht M")
+                        .contains(".pdf")
+                        .hasSizeLessThanOrEqualTo(200)
+                        .hasSize(cd.encodedLength());
+                assertThat(cd.encodedLength())
+                        .isLessThanOrEqualTo(200);
+            }
+        }
+
+        @Test
+        void keepsShortenedCandidatesOutOfCachingIsoFallback() {
+            CachingIsoFallback fallback = new CachingIsoFallback(new TransliteratingIsoFallback(), 100);
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename(repeat("Œuvre März ", 30) + ".pdf")
+                    .isoFallback(fallback)
+                    .maxHeaderLength(200)
+                    .build();
+
+            String actual = cd.headerValue();
+
+            assertThat(actual)
+                    .hasSizeLessThanOrEqualTo(200);
+            // the full filename (checked whether it fits) and the one shortened filename that got rendered
+            assertThat(fallback.getSize())
+                    .isEqualTo(2);
+
+            long misses = fallback.getMissCount();
+            assertThat(cd.headerValue())
+                    .isEqualTo(actual);
+            assertThat(fallback.getMissCount())
+                    .isEqualTo(misses);
+        }
+
+        @Test
+        void staysWithinBudgetWithTransliteratingFallback() {
+            Random random = new Random(31);
+
+            for (int i = 0; i < 1_000; i++) {
+                String filename = randomString(random, alphabet, 0, 99);
+                int maxHeaderLength = 120 + random.nextInt(200);
+
+                HttpContentDisposition cd = HttpContentDisposition.builder()
+                        .filename(filename + "Œuvre.txt")
+                        .isoFallback(new TransliteratingIsoFallback())
+                        .maxSegmentLength(random.nextBoolean() ? HeaderRenderer.NO_CONTINUATIONS : 30)
+                        .maxHeaderLength(maxHeaderLength)
+                        .build();
+
+                assertThat(cd.headerValue())
+                        .describedAs("filename: %s", filename)
+                        .hasSizeLessThanOrEqualTo(maxHeaderLength);
+            }
+        }
+
+        private String repeat(String pattern, int count) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                result.append(pattern);
+            }
+
+            return result.toString();
+        }
+
+        @Test
+        void failsIfNothingFits() {
+            HttpContentDisposition cd = HttpContentDisposition.builder()
+                    .filename("a.pdf")
+                    .maxHeaderLength(10)
+                    .build();
+
+            assertThatThrownBy(cd::headerValue)
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        void rejectsNegativeLength() {
+            assertThatThrownBy(() -> HttpContentDisposition.builder().maxHeaderLength(-1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     @Nested
     class BuilderTest {
         @Test
@@ -1,6 +1,7 @@
 package com.github.HonoluluHenk.httpcontentdisposition.helpers;
 
 import java.util.LinkedHashSet;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -67,6 +68,23 @@ public final class Helpers {
         );
     }
 
+    /**
+     * Concatenates randomly picked entries of the alphabet, reproducible through the seed of the random.
+     *
+     * @param alphabet single characters or surrogate pairs (or lone surrogates, to test those)
+     * @param minLength inclusive, in alphabet entries
+     * @param maxLength inclusive, in alphabet entries
+     */
+    public static String randomString(Random random, String[] alphabet, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+
+        return sb.toString();
+    }
+
     @SafeVarargs
     public static <T> Stream<T> concat(Stream<T>... streams) {
         return Stream.of(streams)
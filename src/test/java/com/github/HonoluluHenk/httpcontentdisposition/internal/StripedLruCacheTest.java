@@ -0,0 +1,76 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedLruCacheTest {
+
+    @Test
+    void shouldComputeOnlyOnMiss() {
+        StripedLruCache<String, String> cache = new StripedLruCache<>(10);
+
+        String first = cache.computeIfAbsent("a", k -> k + "!");
+        String second = cache.computeIfAbsent("a", k -> "not called");
+
+        assertThat(first)
+                .isEqualTo("a!");
+        assertThat(second)
+                .isEqualTo("a!");
+        assertThat(cache.missCount())
+                .isEqualTo(1);
+        assertThat(cache.hitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsed() {
+        // a single stripe behaves as a plain LRU
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(1);
+
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        assertThat(cache.getIfPresent(1))
+                .isNull();
+        assertThat(cache.getIfPresent(2))
+                .isEqualTo("two");
+        assertThat(cache.size())
+                .isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 15, 16, 17, 31, 100, 1000})
+    void shouldHoldExactlyMaximumSize(int maximumSize) {
+        StripedLruCache<Integer, Integer> cache = new StripedLruCache<>(maximumSize);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.maximumSize())
+                .isEqualTo(maximumSize);
+        assertThat(cache.size())
+                .isEqualTo(maximumSize);
+    }
+
+    @Test
+    void clearShouldDropEntries() {
+        StripedLruCache<String, String> cache = new StripedLruCache<>(10);
+        cache.put("a", "b");
+
+        cache.clear();
+
+        assertThat(cache.size())
+                .isEqualTo(0);
+    }
+
+    @Test
+    void shouldRejectNonPositiveSize() {
+        assertThatThrownBy(() -> new StripedLruCache<>(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
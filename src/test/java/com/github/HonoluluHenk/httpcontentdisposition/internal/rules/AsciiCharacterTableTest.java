@@ -0,0 +1,54 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciiCharacterTableTest {
+    private final IntPredicate definition = codePoint -> codePoint % 3 == 0;
+    private final AsciiCharacterTable table = AsciiCharacterTable.of(definition);
+
+    @Test
+    void shouldContainExactlyTheDefinedAsciiCharacters() {
+        for (int c = 0; c < 128; c++) {
+            assertThat(table.contains(c))
+                    .describedAs("Character: %d", c)
+                    .isEqualTo(definition.test(c));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {
+            Integer.MIN_VALUE,
+            -64,
+            -1,
+            128 + 3, // 131: would alias to 3 if not rejected
+            192, // would alias to 0/64 if not rejected
+            'Ā',
+            1114111,
+            Integer.MAX_VALUE,
+    })
+    void shouldRejectOutsideASCII(int codePoint) {
+        assertThat(table.contains(codePoint))
+                .isFalse();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'',0",
+            "0369,4",
+            "03a69,2",
+            "1,0",
+            "'0ă',1", // 259 = 3 mod 256 (and mod 128): must not alias
+            "'0😀',1",
+    })
+    void shouldSpanLeadingMembers(String input, int expected) {
+        assertThat(table.span(input))
+                .isEqualTo(expected);
+    }
+}
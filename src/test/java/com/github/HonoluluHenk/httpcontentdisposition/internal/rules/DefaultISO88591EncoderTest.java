@@ -0,0 +1,62 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.randomString;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultISO88591EncoderTest {
+    private static final String[] ALPHABET = {
+            "a", " ", "\t", "\u0000", "ö", "ÿ", "Ā", "€", "東", "😀", "\uD800", "\uDC00",
+    };
+
+    private final DefaultISO88591Encoder encoder = new DefaultISO88591Encoder();
+
+    @ParameterizedTest
+    @CsvSource({
+            ",''",
+            "'',''",
+            "'  ',''",
+            "' asdf.bin ',asdf.bin",
+            "'Übersicht März.pdf','Übersicht März.pdf'",
+            "'I ❤ Ada','I ? Ada'",
+            "'😀 party','? party'",
+            "' €uro€ ','?uro?'",
+    })
+    void shouldTrimAndReplace(@Nullable String input, String expected) {
+        assertThat(encoder.encode(input))
+                .isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "asdf.bin",
+            "Übersicht März.pdf",
+            "ÿ",
+    })
+    void shouldReturnSameInstanceIfNothingChanges(String input) {
+        assertThat(encoder.encode(input))
+                .isSameAs(input);
+    }
+
+    @Test
+    void shouldMatchJdkRoundTrip() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String input = randomString(random, ALPHABET, 0, 11);
+            String expected = new String(input.trim().getBytes(ISO_8859_1), ISO_8859_1);
+
+            assertThat(encoder.encode(input))
+                    .describedAs("input: %s", input)
+                    .isEqualTo(expected);
+        }
+    }
+}
@@ -102,6 +102,62 @@ class RFC2616CharacterRulesTest {
         }
     }
 
+    @Nested
+    class OctetPrefixLengthTest {
+        @ParameterizedTest
+        @CsvSource({
+                "'',0",
+                "'Übersicht März.pdf',18",
+                "'€',0",
+                "'1234567€',7",
+                "'12345678€',8",
+                "'12345678901234567890€x',20",
+                "'ÿÿÿÿÿÿÿÿÿ',9",
+                "'ab😀',2",
+        })
+        void shouldStopAtFirstNonOctet(String input, int expected) {
+            int actual = rules.octetPrefixLength(input);
+
+            assertThat(actual)
+                    .isEqualTo(expected);
+        }
+
+        @Test
+        void shouldFindNonOctetAtEveryPosition() {
+            for (int length = 1; length < 40; length++) {
+                for (int pos = 0; pos < length; pos++) {
+                    StringBuilder input = new StringBuilder();
+                    for (int i = 0; i < length; i++) {
+                        input.append(i == pos ? 'Ā' : 'ÿ');
+                    }
+
+                    assertThat(rules.octetPrefixLength(input))
+                            .describedAs("length: %d, position: %d", length, pos)
+                            .isEqualTo(pos);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class TokenPrefixLengthTest {
+        @ParameterizedTest
+        @CsvSource({
+                "'',0",
+                "report-2026-10.pdf,18",
+                "'report 2026.pdf',6",
+                "\"quoted\",0",
+                "'Übersicht.pdf',0",
+                "'ab€',2",
+        })
+        void shouldStopAtFirstNonTokenChar(String input, int expected) {
+            int actual = rules.tokenPrefixLength(input);
+
+            assertThat(actual)
+                    .isEqualTo(expected);
+        }
+    }
+
     @Nested
     class IsSeparatorTest extends GenericRuleTestSuite<RFC2616CharacterRules> {
         IsSeparatorTest() {
@@ -0,0 +1,94 @@
+package com.github.HonoluluHenk.httpcontentdisposition.internal.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RFC8187DecoderTest {
+    private final RFC8187Decoder decoder = new RFC8187Decoder();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "UTF-8''",
+            "utf-8''foo",
+            "UTF-8'de-CH'%C3%B6",
+            "iso-8859-1''%F6",
+            "ISO-8859-1'en'abc%20def",
+            "UTF-16''foo",
+    })
+    void acceptsValidExtValues(String input) {
+        assertThat(decoder.isValidExtValue(input, 0, input.length()))
+                .isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "UTF-8''foo, true",
+            "iso-8859-1''foo, true",
+            "UTF-16''foo, false",
+            "windows-1252''foo, false",
+    })
+    void checksCharsetSupport(String input, boolean expected) {
+        assertThat(decoder.isSupportedCharset(input, 0, input.length()))
+                .isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "foo",
+            "UTF-8'foo",
+            "''foo",
+            "UTF 8''foo",
+            "UTF-8''%",
+            "UTF-8''%F",
+            "UTF-8''%FG",
+            "UTF-8''a b",
+            "UTF-8''a'b",
+    })
+    void rejectsInvalidExtValues(String input) {
+        assertThat(decoder.isValidExtValue(input, 0, input.length()))
+                .isFalse();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "UTF-8'', ''",
+            "UTF-8''foo, foo",
+            "UTF-8''%c3%b6%C3%B6, öö",
+            "UTF-8''%F0%AF%A0%84, 你",
+            "ISO-8859-1''%F6, ö",
+    })
+    void decodesValue(String input, String expected) {
+        assertThat(decoder.decodeValue(input, 0, input.length()))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void decodesRange() {
+        String input = "filename*=UTF-8''a%20b; foo";
+
+        String actual = decoder.decodeValue(input, 10, 22);
+
+        assertThat(actual)
+                .isEqualTo("a b");
+    }
+
+    @Test
+    void roundTripsEncoder() {
+        String input = "Hell\"ö-♠1234.bin 你";
+        String encoded = new RFC8187Encoder().encodeExtValue(input, Locale.GERMAN).getValue();
+
+        assertThat(decoder.isValidExtValue(encoded, 0, encoded.length()))
+                .isTrue();
+        assertThat(decoder.decodeValue(encoded, 0, encoded.length()))
+                .isEqualTo(input);
+        assertThat(decoder.decodeLanguage(encoded, 0, encoded.length()))
+                .isEqualTo("de");
+    }
+}
@@ -8,13 +8,22 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.randomString;
 import static com.github.HonoluluHenk.httpcontentdisposition.helpers.Helpers.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 
 @SuppressWarnings("NonBooleanMethodNameMayNotStartWithQuestion")
@@ -203,6 +212,44 @@ public class RFC8187EncoderTest {
             assertThat(actual)
                     .isEqualTo(new Encoded("UTF-8''%F0%AF%A0%84", true));
         }
+
+        @Test
+        void shouldEncodeLoneSurrogatesLikeTheJdk() {
+            // the JDK UTF-8 encoder replaces malformed input with '?'
+            Encoded actual = encoder.encodeExtValue("a\uD800b\uDC00");
+
+            assertThat(actual)
+                    .isEqualTo(new Encoded("UTF-8''a%3Fb%3F", true));
+        }
+
+        @Test
+        void shouldEncodeAllCodePointsLikeTheJdk() {
+            Set<Character> unescaped = new SingleCharacterAsciiRangeTest().allowedChars()
+                    .collect(Collectors.toSet());
+
+            for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+                String input = new String(Character.toChars(codePoint));
+                String expected = unescaped.contains(input.charAt(0))
+                        ? input
+                        : pctEncodeUsingJdk(input);
+
+                Encoded actual = encoder.encodeExtValue(input);
+
+                assertThat(actual.getValue())
+                        .describedAs("Code point: %d", codePoint)
+                        .isEqualTo("UTF-8''" + expected)
+                        .hasSize(encoder.encodedLength(input, null));
+            }
+        }
+
+        private String pctEncodeUsingJdk(String input) {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : input.getBytes(StandardCharsets.UTF_8)) {
+                sb.append(String.format("%%%02X", b & 0xFF));
+            }
+
+            return sb.toString();
+        }
     }
 
     // remember: single-quotes are used in CsvSource to preserve whitespace, but only if used directly after comma (,)
@@ -224,6 +271,159 @@ public class RFC8187EncoderTest {
                 .isEqualTo(new Encoded(expected, true));
     }
 
+    @Nested
+    class EncodeExtValueToTest {
+        @Test
+        void appendsToStringBuilder() {
+            StringBuilder sb = new StringBuilder("filename*=");
+
+            boolean actual = encoder.encodeExtValueTo("Hellö", Locale.GERMAN, sb);
+
+            assertThat(actual)
+                    .isTrue();
+            assertThat(sb.toString())
+                    .isEqualTo("filename*=UTF-8'de'Hell%C3%B6");
+        }
+
+        @Test
+        void appendsToAppendable() throws IOException {
+            StringWriter writer = new StringWriter();
+
+            boolean actual = encoder.encodeExtValueTo("Hello", null, writer);
+
+            assertThat(actual)
+                    .isFalse();
+            assertThat(writer.toString())
+                    .isEqualTo("UTF-8''Hello");
+        }
+
+        @Test
+        void acceptsCharSequence() throws IOException {
+            CharSequence input = CharBuffer.wrap("a\uD83D\uDE00b".toCharArray());
+            StringWriter writer = new StringWriter();
+
+            encoder.encodeExtValueTo(input, null, writer);
+
+            assertThat(writer.toString())
+                    .isEqualTo(encoder.encodeExtValue("a\uD83D\uDE00b").getValue())
+                    .isEqualTo("UTF-8''a%F0%9F%98%80b");
+        }
+    }
+
+    @Nested
+    class EncodedLengthTest {
+        @ParameterizedTest
+        @CsvSource({
+                "'', ''",
+                "asdf, ''",
+                "' ❤ ', de",
+                "Hell\"ö-♠1234.bin, de-CH",
+                "😀a\uD800b\uDC00, fr",
+        })
+        void shouldMatchEncodedValue(String input, String languageTag) {
+            Locale locale = languageTag.isEmpty() ? null : Locale.forLanguageTag(languageTag);
+
+            int actual = encoder.encodedLength(input, locale);
+
+            assertThat(actual)
+                    .isEqualTo(encoder.encodeExtValue(input, locale).getValue().length());
+        }
+
+        @Test
+        void shouldMatchEncodedValueOfRandomStrings() {
+            String[] alphabet = {"a", " ", "%", "'", "ö", "€", "東", "😀", "\uD800", "\uDC00"};
+            Random random = new Random(5);
+
+            for (int i = 0; i < 5_000; i++) {
+                String input = randomString(random, alphabet, 0, 39);
+
+                int actual = encoder.encodedLength(input, Locale.GERMANY);
+
+                assertThat(actual)
+                        .describedAs("input: %s", input)
+                        .isEqualTo(encoder.encodeExtValue(input.toString(), Locale.GERMANY).getValue().length());
+            }
+        }
+    }
+
+    @Nested
+    class SegmentedTest {
+        private final RFC8187Decoder decoder = new RFC8187Decoder();
+        private final SegmentBoundaries boundaries = new SegmentBoundaries();
+
+        @Test
+        void shouldNotSplitIfAllFits() {
+            StringBuilder out = new StringBuilder();
+
+            encoder.pctEncode("€uro", out, 12, boundaries);
+
+            assertThat(out.toString())
+                    .isEqualTo("%E2%82%ACuro");
+            assertThat(boundaries.size())
+                    .isZero();
+        }
+
+        @Test
+        void shouldSplitBetweenCodePoints() {
+            StringBuilder out = new StringBuilder("prefix");
+
+            encoder.pctEncode("a€😀b", out, 12, boundaries);
+
+            assertThat(out.toString())
+                    .isEqualTo("prefixa%E2%82%AC%F0%9F%98%80b");
+            assertThat(segments(out, 6))
+                    .containsExactly("a%E2%82%AC", "%F0%9F%98%80", "b");
+        }
+
+        @Test
+        void shouldSplitRandomStringsIntoWholeCodePoints() {
+            String[] alphabet = {"a", " ", "%", "ö", "€", "東", "😀", "\uD800", "\uDC00"};
+            Random random = new Random(42);
+
+            for (int i = 0; i < 5_000; i++) {
+                String input = randomString(random, alphabet, 1, 40);
+                int maxSegmentLength = 12 + random.nextInt(30);
+                StringBuilder expected = new StringBuilder();
+                encoder.pctEncode(input, expected);
+                StringBuilder out = new StringBuilder();
+                boundaries.clear();
+
+                encoder.pctEncode(input.toString(), out, maxSegmentLength, boundaries);
+
+                assertThat(out.toString())
+                        .isEqualTo(expected.toString());
+                StringBuilder decoded = new StringBuilder();
+                for (String segment : segments(out, 0)) {
+                    assertThat(segment.length())
+                            .describedAs("input: %s", input)
+                            .isBetween(1, maxSegmentLength);
+                    // a split inside a UTF-8 sequence would decode to U+FFFD
+                    decoded.append(decoder.decodeValue("UTF-8''" + segment, 0, segment.length() + 7));
+                }
+                assertThat(decoded.toString())
+                        .isEqualTo(decoder.decodeValue("UTF-8''" + out, 0, out.length() + 7));
+            }
+        }
+
+        @Test
+        void shouldRejectTooShortSegments() {
+            assertThatThrownBy(() -> encoder.pctEncode("a", new StringBuilder(), 11, boundaries))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        private List<String> segments(StringBuilder out, int start) {
+            List<String> result = new ArrayList<>();
+            int segmentStart = start;
+            for (int i = 0; i < boundaries.size(); i++) {
+                result.add(out.substring(segmentStart, boundaries.get(i)));
+                segmentStart = boundaries.get(i);
+            }
+            result.add(out.substring(segmentStart));
+
+            return result;
+        }
+    }
+
     @Nested
     class LanguageTagTest {
         @Test
@@ -276,5 +476,33 @@ public class RFC8187EncoderTest {
             assertThat(actual)
                     .isEqualTo("UTF-8'de-DE'asdf");
         }
+
+        @Test
+        void shouldNotMixUpCachedLocales() {
+            Locale plain = new Locale("de", "CH");
+            Locale withVariant = new Locale("de", "CH", "foo");
+
+            assertThat(encoder.parseLanguageTag(plain))
+                    .isEqualTo("de-CH");
+            assertThat(encoder.parseLanguageTag(withVariant))
+                    .isEqualTo("de-CH");
+            assertThat(encoder.parseLanguageTag(Locale.FRANCE))
+                    .isEqualTo("fr-FR");
+            assertThat(encoder.parseLanguageTag(plain))
+                    .isEqualTo("de-CH");
+        }
+
+        @Test
+        void shouldConvertMoreLocalesThanCached() {
+            for (Locale locale : Locale.getAvailableLocales()) {
+                Locale clean = new Locale(locale.getLanguage(), locale.getCountry());
+
+                // twice: once maybe from the cache
+                assertThat(encoder.parseLanguageTag(locale))
+                        .isEqualTo(clean.toLanguageTag());
+                assertThat(encoder.parseLanguageTag(locale))
+                        .isEqualTo(clean.toLanguageTag());
+            }
+        }
     }
 }
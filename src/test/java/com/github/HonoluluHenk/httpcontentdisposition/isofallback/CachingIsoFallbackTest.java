@@ -0,0 +1,105 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingIsoFallbackTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final IsoFallback counting = input -> {
+        calls.incrementAndGet();
+        return input.startsWith("null") ? null : "iso:" + input;
+    };
+
+    @Test
+    void shouldCallDelegateOncePerFilename() {
+        CachingIsoFallback fallback = new CachingIsoFallback(counting, 100);
+
+        assertThat(fallback.fallback("a"))
+                .isEqualTo("iso:a");
+        assertThat(fallback.fallback("a"))
+                .isEqualTo("iso:a");
+        assertThat(fallback.fallback("b"))
+                .isEqualTo("iso:b");
+
+        assertThat(calls)
+                .hasValue(2);
+        assertThat(fallback.getHitCount())
+                .isEqualTo(1);
+        assertThat(fallback.getMissCount())
+                .isEqualTo(2);
+        assertThat(fallback.getHitRate())
+                .isEqualTo(1.0 / 3);
+        assertThat(fallback.getSize())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldCacheNullResults() {
+        CachingIsoFallback fallback = new CachingIsoFallback(counting, 100);
+
+        assertThat(fallback.fallback("null1"))
+                .isNull();
+        assertThat(fallback.fallback("null1"))
+                .isNull();
+
+        assertThat(calls)
+                .hasValue(1);
+    }
+
+    @Test
+    void shouldStayBounded() {
+        CachingIsoFallback fallback = new CachingIsoFallback(counting, 16);
+
+        for (int i = 0; i < 1000; i++) {
+            fallback.fallback("file" + i);
+        }
+
+        assertThat(fallback.getSize())
+                .isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void shouldDelegateFlags() {
+        CachingIsoFallback fallback = new CachingIsoFallback(new OverrideIsoFallback("x", false), 10);
+
+        assertThat(fallback.needsEncoding())
+                .isFalse();
+        assertThat(fallback.isCacheable())
+                .isTrue();
+        assertThat(new CachingIsoFallback(counting, 10).isCacheable())
+                .isFalse();
+    }
+
+    @Test
+    void shouldNotSerializeCachedValues() throws IOException, ClassNotFoundException {
+        CachingIsoFallback fallback = new CachingIsoFallback(new TransliteratingIsoFallback(), 10);
+        fallback.fallback("Œuvre");
+
+        CachingIsoFallback actual = roundTrip(fallback);
+
+        assertThat(actual)
+                .isEqualTo(fallback);
+        assertThat(actual.getSize())
+                .isZero();
+        assertThat(actual.fallback("Œuvre"))
+                .isEqualTo("OEuvre");
+    }
+
+    private static CachingIsoFallback roundTrip(CachingIsoFallback fallback) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(fallback);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (CachingIsoFallback) in.readObject();
+        }
+    }
+}
@@ -14,4 +14,36 @@ class OverrideIsoFallbackTest {
         assertThat(actual)
                 .isEqualTo("foo");
     }
+
+    @Test
+    void shouldEqualOnValueAndNeedsEncoding() {
+        assertThat(new OverrideIsoFallback("foo"))
+                .isEqualTo(new OverrideIsoFallback("foo", true))
+                .hasSameHashCodeAs(new OverrideIsoFallback("foo", true))
+                .isNotEqualTo(new OverrideIsoFallback("foo", false))
+                .isNotEqualTo(new OverrideIsoFallback("bar"))
+                .isNotEqualTo(new OverrideIsoFallback(null));
+    }
+
+    @Test
+    void shouldBeCacheable() {
+        assertThat(new OverrideIsoFallback("foo").isCacheable())
+                .isTrue();
+        assertThat(new EncodeIsoFallback().isCacheable())
+                .isTrue();
+        assertThat(new EncodeIsoFallback())
+                .isEqualTo(new EncodeIsoFallback());
+    }
+
+    @Test
+    void shouldNotInheritCacheableToSubclasses() {
+        assertThat(new OverrideIsoFallback("foo") {
+            private static final long serialVersionUID = 1L;
+        }.isCacheable())
+                .isFalse();
+        assertThat(new EncodeIsoFallback() {
+            private static final long serialVersionUID = 1L;
+        }.isCacheable())
+                .isFalse();
+    }
 }
@@ -0,0 +1,66 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import com.github.HonoluluHenk.httpcontentdisposition.HttpContentDisposition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransliteratingIsoFallbackTest {
+    private final TransliteratingIsoFallback fallback = new TransliteratingIsoFallback();
+
+    @ParameterizedTest
+    @CsvSource({
+            "'Übersicht März.pdf','Übersicht März.pdf'",
+            "'Œuvre – Σ €','OEuvre - S EUR'",
+            "'Łódź Świętokrzyska','Lódz Swietokrzyska'",
+            "'Ελληνικά','Ellinika'",
+            "'Москва Щука','Moskva Shchuka'",
+            "'“quoted” ‘single’ …','\"quoted\" ''single'' ...'",
+            "'Café','Cafe'",
+            "'ﬁnal™','finalTM'",
+            "'I ❤ 東京','I ❤ 東京'",
+    })
+    void shouldTransliterate(String input, String expected) {
+        assertThat(fallback.fallback(input))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void shouldReturnLatin1InputItself() {
+        String input = "Café Ünïcødé";
+
+        assertThat(fallback.fallback(input))
+                .isSameAs(input);
+    }
+
+    @Test
+    void shouldLeaveUnmappedCharactersToTheIsoEncoding() {
+        String actual = HttpContentDisposition.builder()
+                .filename("Café Ünïcødé ❤ 東京 – Ελλάδα")
+                .isoFallback(fallback)
+                .build()
+                .headerValue();
+
+        assertThat(actual)
+                .startsWith("attachment; filename=\"Café Ünïcødé ? ?? - Ellada\"; filename*=UTF-8''");
+    }
+
+    @Test
+    void shouldBeCacheable() {
+        assertThat(fallback.isCacheable())
+                .isTrue();
+        assertThat(fallback)
+                .isEqualTo(new TransliteratingIsoFallback())
+                .hasSameHashCodeAs(new TransliteratingIsoFallback());
+    }
+
+    @Test
+    void shouldNotInheritCacheableToSubclasses() {
+        assertThat(new TransliteratingIsoFallback() {
+            private static final long serialVersionUID = 1L;
+        }.isCacheable())
+                .isFalse();
+    }
+}
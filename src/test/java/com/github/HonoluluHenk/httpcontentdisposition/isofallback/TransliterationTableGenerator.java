@@ -0,0 +1,229 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates the table used by {@link TransliteratingIsoFallback}, so the Normalizer runs once here and never at runtime.
+ * <p>
+ * Run {@link #main(String[])} from the project root after changing the mappings,
+ * {@code TransliterationTableTest} fails as long as the checked in table is out of date.
+ * <p>
+ * Every code point of the covered blocks gets mapped by (first match wins):
+ * <ol>
+ *     <li>an explicit mapping (transliterations, letters without decomposition, punctuation)</li>
+ *     <li>its compatibility decomposition (NFKD) without the combining marks,
+ *     the remaining characters again mapped explicitly</li>
+ * </ol>
+ * Code points whose result is not all ISO-8859-1 are left out: the ISO encoding replaces them by '?'.
+ */
+public final class TransliterationTableGenerator {
+    static final Path TABLE_FILE = Paths.get(
+            "src/main/resources/com/github/HonoluluHenk/httpcontentdisposition/isofallback/transliteration.txt");
+
+    /**
+     * The covered blocks: [start, end] inclusive.
+     */
+    private static final int[][] BLOCKS = {
+            {0x0100, 0x024F}, // Latin Extended-A/-B
+            {0x0300, 0x036F}, // Combining Diacritical Marks (i.e.: decomposed input)
+            {0x0370, 0x03FF}, // Greek and Coptic
+            {0x0400, 0x04FF}, // Cyrillic
+            {0x1E00, 0x1EFF}, // Latin Extended Additional
+            {0x2000, 0x206F}, // General Punctuation
+            {0x20AC, 0x20AC}, // Euro sign
+            {0x2122, 0x2122}, // Trade mark sign
+            {0xFB00, 0xFB06}, // Latin ligatures
+    };
+
+    private static final Map<Integer, String> EXPLICIT = new HashMap<>();
+
+    static {
+        // Latin letters without (useful) decomposition
+        map("ĐđĦħıĿŀŁłŊŋŦŧƀƁƂƃƇƈƉƊƋƌƑƒƓƗƘƙƚƝƞƤƥƫƬƭƮƳƴƵƶǤǥȡȤȥȴȵȶȷȺȻȼȽȾȿɀɃɄɆɇɈɉɊɋɌɍɎɏ",
+                "DdHhiLlLlNnTtbBBbCcDDDdFfGIKklNnPptTtTYyZzGgdZzlntjACcLTszBUEeJjQqRrYy");
+        map('Œ', "OE");
+        map('œ', "oe");
+        map('Ə', "E");
+        map('ə', "e");
+        map('Ɛ', "E");
+        map('ŉ', "'n");
+        map('ĸ', "q");
+        map('ẞ', "SS");
+
+        // Greek (ELOT 743, simplified)
+        map("ΑΒΓΔΕΖΗΙΚΛΜΝΞΟΠΡΣΤΥΦΩ", "AVGDEZIIKLMNXOPRSTYFO");
+        map("αβγδεζηικλμνξοπρσςτυφω", "avgdeziiklmnxoprsstyfo");
+        map('Θ', "Th");
+        map('θ', "th");
+        map('Χ', "Ch");
+        map('χ', "ch");
+        map('Ψ', "Ps");
+        map('ψ', "ps");
+        map('ϐ', "v");
+        map('ϑ', "th");
+        map('ϕ', "f");
+        map('ϖ', "p");
+        map('ϰ', "k");
+        map('ϱ', "r");
+        map('ϲ', "s");
+        map('ϴ', "Th");
+        map('ϵ', "e");
+        map('΄', "'");
+
+        // Cyrillic (BGN/PCGN, simplified)
+        map("АБВГДЕЗИКЛМНОПРСТУФЫЭІЈЅ", "ABVGDEZIKLMNOPRSTUFYEIJS");
+        map("абвгдезиклмнопрстуфыэіјѕ", "abvgdeziklmnoprstufyeijs");
+        map('Ё', "Yo");
+        map('ё', "yo");
+        map('Ж', "Zh");
+        map('ж', "zh");
+        map('Й', "Y");
+        map('й', "y");
+        map('Х', "Kh");
+        map('х', "kh");
+        map('Ц', "Ts");
+        map('ц', "ts");
+        map('Ч', "Ch");
+        map('ч', "ch");
+        map('Ш', "Sh");
+        map('ш', "sh");
+        map('Щ', "Shch");
+        map('щ', "shch");
+        map('Ъ', "");
+        map('ъ', "");
+        map('Ь', "");
+        map('ь', "");
+        map('Ю', "Yu");
+        map('ю', "yu");
+        map('Я', "Ya");
+        map('я', "ya");
+        map('Є', "Ye");
+        map('є', "ye");
+        map('Ї', "Yi");
+        map('ї', "yi");
+        map('Ґ', "G");
+        map('ґ', "g");
+        map('Ђ', "Dj");
+        map('ђ', "dj");
+        map('Ћ', "C");
+        map('ћ', "c");
+        map('Љ', "Lj");
+        map('љ', "lj");
+        map('Њ', "Nj");
+        map('њ', "nj");
+        map('Џ', "Dz");
+        map('џ', "dz");
+        map('Ў', "U");
+        map('ў', "u");
+
+        // typographic punctuation
+        map("‐‑‒–—―", "------");
+        map("‘’‚‛′‵", "''''''");
+        map("“”„‟″‶", "\"\"\"\"\"\"");
+        map("‹›", "<>");
+        map('•', "·");
+        map('‣', ">");
+        map('⁄', "/");
+        map('€', "EUR");
+        // invisible: zero width (non-)joiners, direction marks, word joiner, ...
+        for (int codePoint : new int[] {0x200B, 0x200C, 0x200D, 0x200E, 0x200F, 0x2060, 0x2061, 0x2062, 0x2063, 0x2064}) {
+            EXPLICIT.put(codePoint, "");
+        }
+    }
+
+    private TransliterationTableGenerator() {
+        // utility class
+    }
+
+    public static void main(String[] args) throws IOException {
+        Files.createDirectories(TABLE_FILE.getParent());
+        try (Writer out = Files.newBufferedWriter(TABLE_FILE, UTF_8)) {
+            out.write(generate());
+        }
+        System.out.println("Written: " + TABLE_FILE.toAbsolutePath());
+    }
+
+    /**
+     * The table file contents: one "HHHH=replacement" line per code point (hex, ascending).
+     */
+    static String generate() {
+        StringBuilder result = new StringBuilder();
+        result.append("# Generated by TransliterationTableGenerator (src/test): do not edit.\n");
+
+        for (Map.Entry<Integer, String> entry : mappings().entrySet()) {
+            result.append(String.format("%04X", entry.getKey()))
+                    .append('=')
+                    .append(entry.getValue())
+                    .append('\n');
+        }
+
+        return result.toString();
+    }
+
+    static SortedMap<Integer, String> mappings() {
+        SortedMap<Integer, String> result = new TreeMap<>();
+
+        for (int[] block : BLOCKS) {
+            for (int codePoint = block[0]; codePoint <= block[1]; codePoint++) {
+                String replacement = transliterate(codePoint);
+                if (replacement != null && isLatin1(replacement)) {
+                    result.put(codePoint, replacement);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static String transliterate(int codePoint) {
+        String explicit = EXPLICIT.get(codePoint);
+        if (explicit != null) {
+            return explicit;
+        }
+        if (!Character.isDefined(codePoint)) {
+            return null;
+        }
+
+        String decomposed = Normalizer.normalize(new String(Character.toChars(codePoint)), Normalizer.Form.NFKD);
+
+        StringBuilder result = new StringBuilder();
+        decomposed.codePoints()
+                .filter(c -> Character.getType(c) != Character.NON_SPACING_MARK)
+                .forEach(c -> result.append(EXPLICIT.getOrDefault(c, new String(Character.toChars(c)))));
+
+        // the decomposition did not help
+        if (result.toString().equals(new String(Character.toChars(codePoint)))) {
+            return null;
+        }
+
+        return result.toString();
+    }
+
+    private static boolean isLatin1(String value) {
+        return value.chars().allMatch(c -> c <= 0xFF);
+    }
+
+    private static void map(char c, String replacement) {
+        EXPLICIT.put((int) c, replacement);
+    }
+
+    private static void map(String chars, String replacements) {
+        if (chars.length() != replacements.length()) {
+            throw new IllegalArgumentException("Length mismatch: " + chars + "/" + replacements);
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            map(chars.charAt(i), String.valueOf(replacements.charAt(i)));
+        }
+    }
+}
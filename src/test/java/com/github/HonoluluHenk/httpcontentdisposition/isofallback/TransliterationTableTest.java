@@ -0,0 +1,40 @@
+package com.github.HonoluluHenk.httpcontentdisposition.isofallback;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransliterationTableTest {
+
+    @Test
+    void checkedInTableShouldBeUpToDate() throws IOException {
+        String actual = new String(Files.readAllBytes(TransliterationTableGenerator.TABLE_FILE), UTF_8);
+
+        assertThat(actual)
+                .describedAs("Outdated, run TransliterationTableGenerator")
+                .isEqualTo(TransliterationTableGenerator.generate());
+    }
+
+    @Test
+    void shouldLoadAllMappings() {
+        TransliterationTable table = TransliterationTable.getInstance();
+
+        assertThat(table.size())
+                .isEqualTo(TransliterationTableGenerator.mappings().size());
+        TransliterationTableGenerator.mappings().forEach((codePoint, replacement) ->
+                assertThat(table.get((char) codePoint.intValue()))
+                        .isEqualTo(replacement));
+    }
+
+    @Test
+    void shouldOnlyMapToLatin1() {
+        TransliterationTableGenerator.mappings().values().forEach(replacement ->
+                assertThat(replacement.chars().allMatch(c -> c <= 0xFF))
+                        .describedAs(replacement)
+                        .isTrue());
+    }
+}